@@ -0,0 +1,92 @@
+package com.sepulchre.benchmark;
+
+import com.sepulchre.handler.ObstacleHandler;
+import com.sepulchre.stub.SyntheticFloor;
+import net.runelite.api.GameObject;
+import net.runelite.api.events.GraphicsObjectCreated;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handler hot paths against a {@link SyntheticFloor}: the per-tick update, a scene-load spawn
+ * burst and lightning graphics objects. Stub calls go through {@link java.lang.reflect.Proxy},
+ * so absolute numbers include that overhead; compare runs against each other, not the client.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObstacleHandlerBenchmark
+{
+	@Param({"20"})
+	private int wizards;
+
+	@Param({"8"})
+	private int crossbows;
+
+	@Param({"24"})
+	private int projectiles;
+
+	private SyntheticFloor floor;
+	private ObstacleHandler handler;
+	private List<GameObject> burst;
+	private List<GraphicsObjectCreated> lightning;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		floor = new SyntheticFloor(wizards, crossbows, projectiles);
+		handler = floor.getHandler();
+		burst = floor.sceneLoadBurst(6000, 2);
+		lightning = floor.getLightning();
+	}
+
+	@Setup(Level.Iteration)
+	public void populate()
+	{
+		handler.reset();
+		floor.spawnAll();
+	}
+
+	@Benchmark
+	public int gameTick()
+	{
+		floor.tick();
+		return handler.getGeneration();
+	}
+
+	@Benchmark
+	public int spawnBurst()
+	{
+		for (int i = 0; i < burst.size(); i++)
+		{
+			handler.onGameObjectSpawned(burst.get(i));
+		}
+		return handler.getGeneration();
+	}
+
+	@Benchmark
+	public int lightningGraphics()
+	{
+		for (int i = 0; i < lightning.size(); i++)
+		{
+			handler.onGraphicsObjectCreated(lightning.get(i));
+		}
+		return handler.getGeneration();
+	}
+}
@@ -0,0 +1,84 @@
+package com.sepulchre.benchmark;
+
+import com.sepulchre.handler.ObstacleHandler;
+import com.sepulchre.layout.FloorLayouts;
+import com.sepulchre.recording.EventRecorder;
+import com.sepulchre.recording.EventReplayer;
+import com.sepulchre.stub.SyntheticFloor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a whole event recording through the handler. Pass a real floor run with
+ * {@code -p recording=/path/to/sepulchre-....bin}; without one a synthetic floor is recorded first.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark
+{
+	private static final int SYNTHETIC_TICKS = 500;
+
+	@Param({""})
+	private String recording;
+
+	private EventReplayer replayer;
+	private ObstacleHandler handler;
+
+	@Setup
+	public void setUp() throws IOException, InterruptedException
+	{
+		Path path = recording.isEmpty() ? recordSyntheticFloor() : Paths.get(recording);
+		replayer = EventReplayer.load(path);
+		handler = new ObstacleHandler(replayer.getClient(), new FloorLayouts());
+	}
+
+	@Benchmark
+	public int replay()
+	{
+		replayer.replay(handler);
+		return handler.getGeneration();
+	}
+
+	private static Path recordSyntheticFloor() throws IOException, InterruptedException
+	{
+		File file = Files.createTempFile("sepulchre-synthetic", ".bin").toFile();
+		file.deleteOnExit();
+
+		SyntheticFloor floor = new SyntheticFloor(20, 8, 24);
+		EventRecorder recorder = new EventRecorder(floor.getClient());
+		floor.setRecorder(recorder);
+		recorder.start(file);
+		floor.spawnAll();
+		for (int i = 0; i < SYNTHETIC_TICKS; i++)
+		{
+			floor.tick();
+		}
+		floor.despawnAll();
+		recorder.stop();
+		if (!recorder.awaitWritten(10, TimeUnit.SECONDS))
+		{
+			throw new IOException("synthetic recording was not written in time");
+		}
+		return file.toPath();
+	}
+}
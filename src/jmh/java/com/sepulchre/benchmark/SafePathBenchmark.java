@@ -0,0 +1,62 @@
+package com.sepulchre.benchmark;
+
+import com.sepulchre.path.SafePathPlanner;
+import com.sepulchre.stub.SyntheticFloor;
+import net.runelite.api.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick cost of {@link SafePathPlanner} on the synthetic floor, walking from below the wizard
+ * rows to beyond them. {@code replan} forces a full search every tick; {@code tick} lets the
+ * planner keep a still-valid route.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SafePathBenchmark
+{
+	private static final int CENTRE = Constants.SCENE_SIZE / 2;
+
+	private SyntheticFloor floor;
+	private SafePathPlanner planner;
+
+	@Setup
+	public void setUp()
+	{
+		floor = new SyntheticFloor(20, 8, 24);
+		floor.spawnAll();
+		floor.placePlayer(CENTRE, CENTRE - 6, CENTRE + 2, CENTRE + 12);
+		planner = new SafePathPlanner(floor.getClient(), floor.getHandler());
+	}
+
+	@Benchmark
+	public int replan()
+	{
+		floor.tick();
+		planner.clear();
+		planner.update(true);
+		return planner.getPathLength();
+	}
+
+	@Benchmark
+	public int tick()
+	{
+		floor.tick();
+		planner.update(true);
+		return planner.getPathLength();
+	}
+}
@@ -0,0 +1,81 @@
+package com.sepulchre.benchmark;
+
+import com.sepulchre.overlay.SepulchreSceneOverlay;
+import com.sepulchre.stub.SyntheticFloor;
+import net.runelite.api.Constants;
+import net.runelite.api.Perspective;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One frame of {@link SepulchreSceneOverlay#render} into an offscreen image. With a still camera
+ * the frame is mostly display-list replay; a panning camera defeats every projection cache.
+ * A game tick is run every {@link #FRAMES_PER_TICK} frames, matching 50 fps against 0.6 s ticks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SceneOverlayBenchmark
+{
+	private static final int FRAMES_PER_TICK = 30;
+
+	@Param({"false", "true"})
+	private boolean panCamera;
+
+	private SyntheticFloor floor;
+	private SepulchreSceneOverlay overlay;
+	private BufferedImage image;
+	private Graphics2D graphics;
+	private int frame;
+
+	@Setup
+	public void setUp()
+	{
+		floor = new SyntheticFloor(20, 8, 24);
+		floor.spawnAll();
+		floor.tick();
+		overlay = floor.overlay();
+		image = new BufferedImage(765, 503, BufferedImage.TYPE_INT_ARGB);
+		graphics = image.createGraphics();
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		graphics.dispose();
+	}
+
+	@Benchmark
+	public int renderFrame()
+	{
+		frame++;
+		if (frame % FRAMES_PER_TICK == 0)
+		{
+			floor.tick();
+		}
+		if (panCamera)
+		{
+			int centre = Constants.SCENE_SIZE / 2 * Perspective.LOCAL_TILE_SIZE;
+			floor.setCamera(centre, centre - 6 * Perspective.LOCAL_TILE_SIZE, -1200, 383, (frame * 3) & 2047);
+		}
+		overlay.render(graphics);
+		return overlay.getDrawCallsLastFrame();
+	}
+}
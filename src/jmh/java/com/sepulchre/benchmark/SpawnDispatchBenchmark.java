@@ -0,0 +1,98 @@
+package com.sepulchre.benchmark;
+
+import com.sepulchre.util.IdKindTable;
+import com.sepulchre.util.SepulchreConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a scene-load-sized burst of object spawn ids through the id dispatch used by
+ * {@code ObstacleHandler.onGameObjectSpawned}, comparing the boxed set chain with {@link IdKindTable}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpawnDispatchBenchmark
+{
+	/**
+	 * Roughly the number of objects spawned when a populated scene loads.
+	 */
+	@Param({"6000"})
+	private int burstSize;
+
+	/**
+	 * Percentage of the burst that belongs to the Sepulchre; 0 is a scene load elsewhere.
+	 */
+	@Param({"0", "2"})
+	private int relevantPercent;
+
+	private int[] ids;
+
+	@Setup
+	public void setUp()
+	{
+		Random random = new Random(0x5E9);
+		int[] relevant = {38444, 38410, 38420, 38447, 38448};
+
+		ids = new int[burstSize];
+		for (int i = 0; i < burstSize; i++)
+		{
+			ids[i] = random.nextInt(100) < relevantPercent
+				? relevant[random.nextInt(relevant.length)]
+				: random.nextInt(50000);
+		}
+	}
+
+	@Benchmark
+	public int setChain()
+	{
+		int routed = 0;
+		for (int id : ids)
+		{
+			if (SepulchreConstants.CROSSBOW_STATUE_IDS.contains(id))
+			{
+				routed += SepulchreConstants.KIND_CROSSBOW_STATUE;
+			}
+			else if (SepulchreConstants.WIZARD_FLAME_OBJECT_IDS.contains(id))
+			{
+				routed += SepulchreConstants.KIND_WIZARD_STATUE;
+			}
+			else if (id == SepulchreConstants.PORTAL_YELLOW_ID)
+			{
+				routed += SepulchreConstants.KIND_PORTAL_YELLOW;
+			}
+			else if (id == SepulchreConstants.PORTAL_BLUE_ID)
+			{
+				routed += SepulchreConstants.KIND_PORTAL_BLUE;
+			}
+		}
+		return routed;
+	}
+
+	@Benchmark
+	public int kindTable()
+	{
+		IdKindTable table = SepulchreConstants.OBJECT_KINDS;
+		int routed = 0;
+		for (int id : ids)
+		{
+			routed += table.kindOf(id);
+		}
+		return routed;
+	}
+}
@@ -3,10 +3,21 @@ package com.sepulchre;
 import com.google.inject.Provides;
 import com.sepulchre.config.SepulchreConfig;
 import com.sepulchre.handler.ObstacleHandler;
+import com.sepulchre.handler.SceneBootstrap;
+import com.sepulchre.layout.FloorLayouts;
+import com.sepulchre.metrics.HotPathMetrics;
+import com.sepulchre.metrics.SlowPathMonitor;
+import com.sepulchre.overlay.MetricsOverlay;
 import com.sepulchre.overlay.SepulchreSceneOverlay;
+import com.sepulchre.path.SafePathPlanner;
+import com.sepulchre.recording.EventRecorder;
+import com.sepulchre.util.SepulchreConstants;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.CommandExecuted;
 import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.GameTick;
 import net.runelite.api.events.GameObjectSpawned;
@@ -16,24 +27,52 @@ import net.runelite.api.events.GroundObjectDespawned;
 import net.runelite.api.events.NpcSpawned;
 import net.runelite.api.events.NpcDespawned;
 import net.runelite.api.events.GraphicsObjectCreated;
+import net.runelite.client.RuneLite;
+import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.ui.overlay.OverlayManager;
 
 import javax.inject.Inject;
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ScheduledExecutorService;
 
 @PluginDescriptor(
 	name = "Sepulchre Helper",
 	description = "Hallowed Sepulchre helper with more customization",
 	tags = {"sepulchre", "hallowed", "agility", "darkmeyer"}
 )
+@Slf4j
 public class SepulchrePlugin extends Plugin
 {
+	private static final String METRICS_COMMAND = "sepmetrics";
+	private static final String TICK_HISTORY_COMMAND = "septicks";
+
+	/**
+	 * Varp holding the run toggle, 1 while running.
+	 */
+	private static final int RUN_VARP = 173;
+
+	/**
+	 * Time the scene bootstrap may spend per client tick, well inside one frame.
+	 */
+	private static final long BOOTSTRAP_BUDGET_NANOS = 1_000_000;
+
+	private static final File RECORDING_DIR = new File(RuneLite.RUNELITE_DIR, "sepulchre-recordings");
+	private static final DateTimeFormatter RECORDING_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+	private static final File LEARNED_LAYOUTS_FILE = new File(RuneLite.RUNELITE_DIR, "sepulchre-floor-layouts.bin");
+
 	@Inject
 	private Client client;
 
+	@Inject
+	private ClientThread clientThread;
+
 	@Inject
 	private SepulchreConfig config;
 
@@ -46,31 +85,151 @@ public class SepulchrePlugin extends Plugin
 	@Inject
 	private ObstacleHandler obstacleHandler;
 
+	@Inject
+	private FloorLayouts floorLayouts;
+
+	@Inject
+	private SceneBootstrap sceneBootstrap;
+
+	@Inject
+	private EventRecorder eventRecorder;
+
+	@Inject
+	private HotPathMetrics metrics;
+
+	@Inject
+	private MetricsOverlay metricsOverlay;
+
+	@Inject
+	private SlowPathMonitor slowPathMonitor;
+
+	@Inject
+	private SafePathPlanner safePathPlanner;
+
+	@Inject
+	private ScheduledExecutorService executor;
+
 	@Getter
 	private boolean inSepulchre;
 
-	private boolean detectedSepulchreObjects = false;
+	/**
+	 * Set when the loaded map regions could not be read, so spawn events stay open and the
+	 * first hazard object decides instead.
+	 */
+	private boolean awaitingHazardDetection = false;
 
 	@Override
 	protected void startUp()
 	{
-		overlayManager.add(sceneOverlay);
 		obstacleHandler.setOnSepulchreDetected(this::onSepulchreObjectDetected);
+		byte[] learnedLayouts = FloorLayouts.read(LEARNED_LAYOUTS_FILE);
+		sceneOverlay.refreshSettings();
+		updateMetricsOverlay();
+		slowPathMonitor.setThresholdMillis(config.slowThresholdMillis());
+		slowPathMonitor.clearTickHistory();
 		reset();
+		clientThread.invoke(() ->
+		{
+			floorLayouts.load(learnedLayouts);
+			if (client.getGameState() == GameState.LOGGED_IN)
+			{
+				updateRegion();
+				if (inSepulchre || awaitingHazardDetection)
+				{
+					// the scene is already loaded, so its hazards will not raise spawn events
+					sceneBootstrap.start();
+				}
+			}
+		});
 	}
 
 	@Override
 	protected void shutDown()
 	{
-		overlayManager.remove(sceneOverlay);
 		reset();
+		eventRecorder.stop();
+		// snapshot on the client thread, which learns layouts, and keep the disk off it
+		clientThread.invoke(() ->
+		{
+			byte[] learnedLayouts = floorLayouts.snapshot();
+			if (learnedLayouts != null)
+			{
+				executor.execute(() -> FloorLayouts.write(LEARNED_LAYOUTS_FILE, learnedLayouts));
+			}
+		});
+		overlayManager.remove(sceneOverlay);
+		overlayManager.remove(metricsOverlay);
 	}
 
 	private void reset()
 	{
-		inSepulchre = false;
-		detectedSepulchreObjects = false;
+		sceneBootstrap.cancel();
+		safePathPlanner.clear();
+		setInSepulchre(false);
+		awaitingHazardDetection = false;
 		obstacleHandler.reset();
+		sceneOverlay.clearObjectShapes();
+	}
+
+	private void setInSepulchre(boolean inSepulchre)
+	{
+		if (this.inSepulchre == inSepulchre)
+		{
+			return;
+		}
+
+		this.inSepulchre = inSepulchre;
+		if (inSepulchre)
+		{
+			overlayManager.add(sceneOverlay);
+		}
+		else
+		{
+			overlayManager.remove(sceneOverlay);
+			obstacleHandler.reset();
+		}
+		updateRecording();
+	}
+
+	/**
+	 * Keeps one recording running per Sepulchre visit while event recording is enabled.
+	 */
+	private void updateRecording()
+	{
+		boolean wanted = inSepulchre && config.recordEvents();
+		if (wanted && !eventRecorder.isRecording())
+		{
+			String name = "sepulchre-" + LocalDateTime.now().format(RECORDING_NAME_FORMAT) + ".bin";
+			eventRecorder.start(new File(RECORDING_DIR, name));
+		}
+		else if (!wanted)
+		{
+			eventRecorder.stop();
+		}
+	}
+
+	private void updateRegion()
+	{
+		int[] regions = client.getMapRegions();
+		if (regions == null)
+		{
+			awaitingHazardDetection = true;
+			setInSepulchre(false);
+			return;
+		}
+
+		boolean sepulchreRegion = false;
+		for (int region : regions)
+		{
+			if (SepulchreConstants.SEPULCHRE_REGION_IDS.contains(region))
+			{
+				sepulchreRegion = true;
+				break;
+			}
+		}
+
+		awaitingHazardDetection = false;
+		setInSepulchre(sepulchreRegion);
 	}
 
 	@Subscribe
@@ -84,93 +243,184 @@ public class SepulchrePlugin extends Plugin
 		}
 		else if (state == GameState.LOADING)
 		{
+			sceneBootstrap.cancel();
 			obstacleHandler.reset();
-			detectedSepulchreObjects = false;
-			inSepulchre = false;
+			sceneOverlay.clearObjectShapes();
+			// a recording started by updateRegion has already written this scene
+			boolean wasRecording = eventRecorder.isRecording();
+			updateRegion();
+			if (wasRecording)
+			{
+				eventRecorder.recordScene();
+			}
+		}
+	}
+
+	@Subscribe
+	public void onConfigChanged(ConfigChanged event)
+	{
+		if (SepulchreConfig.GROUP.equals(event.getGroup()))
+		{
+			sceneOverlay.refreshSettings();
+			updateMetricsOverlay();
+			slowPathMonitor.setThresholdMillis(config.slowThresholdMillis());
+			clientThread.invoke(this::updateRecording);
+		}
+	}
+
+	private void updateMetricsOverlay()
+	{
+		if (config.showMetricsOverlay())
+		{
+			overlayManager.add(metricsOverlay);
+		}
+		else
+		{
+			overlayManager.remove(metricsOverlay);
+		}
+	}
+
+	@Subscribe
+	public void onCommandExecuted(CommandExecuted event)
+	{
+		if (TICK_HISTORY_COMMAND.equalsIgnoreCase(event.getCommand()))
+		{
+			log.info(slowPathMonitor.dumpTickHistory());
+			return;
+		}
+		if (!METRICS_COMMAND.equalsIgnoreCase(event.getCommand()))
+		{
+			return;
+		}
+
+		String[] arguments = event.getArguments();
+		if (arguments.length > 0 && "reset".equalsIgnoreCase(arguments[0]))
+		{
+			metrics.reset();
+		}
+		else
+		{
+			log.info(metrics.summary());
 		}
 	}
 
 	@Subscribe
 	public void onGameTick(GameTick event)
 	{
-		if (client.getGameState() != GameState.LOGGED_IN)
+		if (!inSepulchre || client.getGameState() != GameState.LOGGED_IN)
 		{
 			return;
 		}
 
-		updateLocation();
+		eventRecorder.recordTick();
+		long start = System.nanoTime();
+		obstacleHandler.onGameTick();
+		metrics.record(HotPathMetrics.Timer.GAME_TICK, start);
+		slowPathMonitor.onTick(start, System.nanoTime());
 
-		if (inSepulchre)
+		if (config.showSafePath())
+		{
+			start = System.nanoTime();
+			safePathPlanner.update(client.getVarpValue(RUN_VARP) == 1);
+			metrics.record(HotPathMetrics.Timer.SAFE_PATH, start);
+		}
+		else
 		{
-			obstacleHandler.onGameTick();
+			safePathPlanner.clear();
 		}
 	}
 
-	private void updateLocation()
+	@Subscribe
+	public void onClientTick(ClientTick event)
 	{
-		boolean wasInSepulchre = inSepulchre;
-		inSepulchre = detectedSepulchreObjects;
-
-		if (!inSepulchre && wasInSepulchre)
+		if (!sceneBootstrap.isRunning())
 		{
-			reset();
+			return;
 		}
+
+		long start = System.nanoTime();
+		sceneBootstrap.step(BOOTSTRAP_BUDGET_NANOS);
+		metrics.record(HotPathMetrics.Timer.SCENE_BOOTSTRAP, start);
 	}
 
 	public void onSepulchreObjectDetected()
 	{
-		if (!detectedSepulchreObjects)
+		if (awaitingHazardDetection)
 		{
-			detectedSepulchreObjects = true;
-			inSepulchre = true;
+			awaitingHazardDetection = false;
+			setInSepulchre(true);
 		}
 	}
 
 	@Subscribe
 	public void onGameObjectSpawned(GameObjectSpawned event)
 	{
+		if (!inSepulchre && !awaitingHazardDetection) return;
+		eventRecorder.recordGameObjectSpawned(event.getGameObject());
+		long start = System.nanoTime();
 		obstacleHandler.onGameObjectSpawned(event);
+		metrics.record(HotPathMetrics.Timer.OBJECT_SPAWNED, start);
 	}
 
 	@Subscribe
 	public void onGameObjectDespawned(GameObjectDespawned event)
 	{
 		if (!inSepulchre) return;
+		sceneOverlay.onGameObjectDespawned(event.getGameObject());
+		eventRecorder.recordGameObjectDespawned(event.getGameObject());
+		long start = System.nanoTime();
 		obstacleHandler.onGameObjectDespawned(event);
+		metrics.record(HotPathMetrics.Timer.OBJECT_DESPAWNED, start);
 	}
 
 	@Subscribe
 	public void onGroundObjectSpawned(GroundObjectSpawned event)
 	{
 		if (!inSepulchre) return;
+		eventRecorder.recordGroundObjectSpawned(event.getGroundObject());
+		long start = System.nanoTime();
 		obstacleHandler.onGroundObjectSpawned(event);
+		metrics.record(HotPathMetrics.Timer.GROUND_OBJECT_SPAWNED, start);
 	}
 
 	@Subscribe
 	public void onGroundObjectDespawned(GroundObjectDespawned event)
 	{
 		if (!inSepulchre) return;
+		eventRecorder.recordGroundObjectDespawned(event.getGroundObject());
+		long start = System.nanoTime();
 		obstacleHandler.onGroundObjectDespawned(event);
+		metrics.record(HotPathMetrics.Timer.GROUND_OBJECT_DESPAWNED, start);
 	}
 
 	@Subscribe
 	public void onNpcSpawned(NpcSpawned event)
 	{
+		if (!inSepulchre && !awaitingHazardDetection) return;
+		eventRecorder.recordNpcSpawned(event.getNpc());
+		long start = System.nanoTime();
 		obstacleHandler.onNpcSpawned(event);
+		metrics.record(HotPathMetrics.Timer.NPC_SPAWNED, start);
 	}
 
 	@Subscribe
 	public void onNpcDespawned(NpcDespawned event)
 	{
 		if (!inSepulchre) return;
+		eventRecorder.recordNpcDespawned(event.getNpc());
+		long start = System.nanoTime();
 		obstacleHandler.onNpcDespawned(event);
+		metrics.record(HotPathMetrics.Timer.NPC_DESPAWNED, start);
 	}
 
 	@Subscribe
 	public void onGraphicsObjectCreated(GraphicsObjectCreated event)
 	{
 		if (!inSepulchre) return;
+		eventRecorder.recordGraphicsObjectCreated(event.getGraphicsObject());
+		long start = System.nanoTime();
 		obstacleHandler.onGraphicsObjectCreated(event);
+		metrics.record(HotPathMetrics.Timer.GRAPHICS_OBJECT_CREATED, start);
 	}
 
 	@Provides
@@ -5,12 +5,15 @@ import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
+import net.runelite.client.config.Units;
 
 import java.awt.Color;
 
-@ConfigGroup("sepulchre")
+@ConfigGroup(SepulchreConfig.GROUP)
 public interface SepulchreConfig extends Config
 {
+	String GROUP = "sepulchre";
+
 	@ConfigSection(
 		name = "Obstacles",
 		description = "Settings for obstacle highlights",
@@ -25,6 +28,14 @@ public interface SepulchreConfig extends Config
 	)
 	String colorSection = "colors";
 
+	@ConfigSection(
+		name = "Developer",
+		description = "Diagnostics for working on the plugin",
+		position = 2,
+		closedByDefault = true
+	)
+	String developerSection = "developer";
+
 	@ConfigItem(
 		keyName = "highlightBolts",
 		name = "Highlight Bolts",
@@ -133,6 +144,42 @@ public interface SepulchreConfig extends Config
 		return true;
 	}
 
+	@ConfigItem(
+		keyName = "showSafePath",
+		name = "Show Safe Path",
+		description = "Plan the fastest route to your walk destination that avoids fire, lightning, bolts and swords over the next few ticks",
+		section = obstacleSection,
+		position = 9
+	)
+	default boolean showSafePath()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "showProjectileLanes",
+		name = "Show Projectile Lanes",
+		description = "Shade the tiles bolts and swords are about to cross, fading with distance",
+		section = obstacleSection,
+		position = 10
+	)
+	default boolean showProjectileLanes()
+	{
+		return true;
+	}
+
+	@ConfigItem(
+		keyName = "showCrossbowLanes",
+		name = "Show Crossbow Lanes",
+		description = "Shade the tiles a crossbow statue's bolt will cross while it charges and fires",
+		section = obstacleSection,
+		position = 11
+	)
+	default boolean showCrossbowLanes()
+	{
+		return true;
+	}
+
 	@ConfigItem(
 		keyName = "showFireTiles",
 		name = "Show Fire Tiles",
@@ -335,4 +382,54 @@ public interface SepulchreConfig extends Config
 	{
 		return new Color(0, 150, 255, 150);
 	}
+
+	@Alpha
+	@ConfigItem(
+		keyName = "safePathColor",
+		name = "Safe Path Color",
+		description = "",
+		section = colorSection,
+		position = 16
+	)
+	default Color safePathColor()
+	{
+		return new Color(0, 255, 0, 60);
+	}
+
+	@ConfigItem(
+		keyName = "recordEvents",
+		name = "Record Events",
+		description = "Write every hazard event inside the Sepulchre to .runelite/sepulchre-recordings for replay",
+		section = developerSection,
+		position = 0
+	)
+	default boolean recordEvents()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "showMetricsOverlay",
+		name = "Show Metrics",
+		description = "Show latency and cache statistics for the plugin's hot paths. Type ::sepmetrics to log them, ::sepmetrics reset to clear them",
+		section = developerSection,
+		position = 1
+	)
+	default boolean showMetricsOverlay()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "slowThresholdMillis",
+		name = "Slow Threshold",
+		description = "Ticks and frames slower than this emit a JFR event. Type ::septicks to log the last ticks",
+		section = developerSection,
+		position = 2
+	)
+	@Units(Units.MILLISECONDS)
+	default int slowThresholdMillis()
+	{
+		return 5;
+	}
 }
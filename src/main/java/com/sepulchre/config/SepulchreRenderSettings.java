@@ -0,0 +1,153 @@
+package com.sepulchre.config;
+
+import com.sepulchre.util.ProjectileTracker;
+import lombok.Getter;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Stroke;
+
+/**
+ * Immutable snapshot of {@link SepulchreConfig} in the form the overlay draws with.
+ * Derived border colors and strokes are built once here instead of per frame, and a new
+ * snapshot is only taken when the config group changes.
+ */
+@Getter
+public final class SepulchreRenderSettings
+{
+	public static final Stroke DEFAULT_STROKE = new BasicStroke(1);
+
+	private final boolean highlightBolts;
+	private final boolean highlightSwords;
+	private final boolean highlightWizards;
+	private final boolean wizardTickCounter;
+	private final boolean highlightLightning;
+	private final boolean highlightCrossbows;
+	private final HighlightStyle crossbowHighlightStyle;
+	private final boolean highlightYellowPortals;
+	private final boolean highlightBluePortals;
+	private final boolean showFireTiles;
+	private final boolean showFireIncoming;
+	private final boolean showSafePath;
+	private final boolean showProjectileLanes;
+	private final boolean showCrossbowLanes;
+
+	private final Color fireColor;
+	private final Color fireBorderColor;
+	private final Color incomingColor;
+	private final Color incomingBorderColor;
+	private final Stroke fireBorderStroke;
+
+	private final Color boltFillColor;
+	private final Color boltBorderColor;
+	private final Color swordFillColor;
+	private final Color swordBorderColor;
+	private final Stroke projectileBorderStroke;
+
+	/**
+	 * Lane colors by ticks ahead minus one, fading towards the end of the lane.
+	 */
+	private final Color[] boltLaneColors;
+	private final Color[] boltLaneBorderColors;
+	private final Color[] swordLaneColors;
+	private final Color[] swordLaneBorderColors;
+
+	private final Color lightningFillColor;
+	private final Color lightningBorderColor;
+
+	private final Color crossbowColor;
+	private final Color crossbowBorderColor;
+	private final Color crossbowChargingColor;
+	private final Color crossbowChargingBorderColor;
+
+	private final Color portalYellowColor;
+	private final Color portalYellowBorderColor;
+	private final Color portalBlueColor;
+	private final Color portalBlueBorderColor;
+
+	private final Color safePathColor;
+	private final Color safePathBorderColor;
+
+	private SepulchreRenderSettings(SepulchreConfig config)
+	{
+		highlightBolts = config.highlightBolts();
+		highlightSwords = config.highlightSwords();
+		highlightWizards = config.highlightWizards();
+		wizardTickCounter = config.wizardTickCounter();
+		highlightLightning = config.highlightLightning();
+		highlightCrossbows = config.highlightCrossbows();
+		crossbowHighlightStyle = config.crossbowHighlightStyle();
+		highlightYellowPortals = config.highlightYellowPortals();
+		highlightBluePortals = config.highlightBluePortals();
+		showFireTiles = config.showFireTiles();
+		showFireIncoming = config.showFireIncoming();
+		showSafePath = config.showSafePath();
+		showProjectileLanes = config.showProjectileLanes();
+		showCrossbowLanes = config.showCrossbowLanes();
+
+		int fireBorderOpacity = clamp(config.fireBorderOpacity(), 0, 255);
+		fireColor = config.fireColor();
+		fireBorderColor = withAlpha(fireColor, fireBorderOpacity);
+		incomingColor = config.incomingColor();
+		incomingBorderColor = withAlpha(incomingColor, fireBorderOpacity);
+		fireBorderStroke = stroke(config.fireBorderWidth());
+
+		boltFillColor = config.boltFillColor();
+		boltBorderColor = config.boltBorderColor();
+		swordFillColor = config.swordFillColor();
+		swordBorderColor = config.swordBorderColor();
+		projectileBorderStroke = stroke(config.projectileBorderWidth());
+		boltLaneColors = fading(boltFillColor);
+		boltLaneBorderColors = fading(boltBorderColor);
+		swordLaneColors = fading(swordFillColor);
+		swordLaneBorderColors = fading(swordBorderColor);
+
+		lightningFillColor = config.lightningFillColor();
+		lightningBorderColor = config.lightningBorderColor();
+
+		crossbowColor = config.crossbowColor();
+		crossbowBorderColor = withAlpha(crossbowColor, 255);
+		crossbowChargingColor = withAlpha(crossbowColor, crossbowColor.getAlpha() / 2);
+		crossbowChargingBorderColor = withAlpha(crossbowColor, 128);
+
+		portalYellowColor = config.portalYellowColor();
+		portalYellowBorderColor = withAlpha(portalYellowColor, 255);
+		portalBlueColor = config.portalBlueColor();
+		portalBlueBorderColor = withAlpha(portalBlueColor, 255);
+
+		safePathColor = config.safePathColor();
+		safePathBorderColor = withAlpha(safePathColor, 255);
+	}
+
+	public static SepulchreRenderSettings from(SepulchreConfig config)
+	{
+		return new SepulchreRenderSettings(config);
+	}
+
+	private static Stroke stroke(int width)
+	{
+		int clamped = clamp(width, 1, 5);
+		return clamped == 1 ? DEFAULT_STROKE : new BasicStroke(clamped);
+	}
+
+	private static Color[] fading(Color color)
+	{
+		int steps = ProjectileTracker.LOOKAHEAD_TICKS;
+		Color[] colors = new Color[steps];
+		for (int i = 0; i < steps; i++)
+		{
+			colors[i] = withAlpha(color, color.getAlpha() * (steps - i) / (steps + 1));
+		}
+		return colors;
+	}
+
+	private static Color withAlpha(Color color, int alpha)
+	{
+		return new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha);
+	}
+
+	private static int clamp(int value, int min, int max)
+	{
+		return Math.max(min, Math.min(max, value));
+	}
+}
@@ -1,15 +1,28 @@
 package com.sepulchre.handler;
 
+import com.sepulchre.layout.FloorLayouts;
 import com.sepulchre.model.CrossbowStatue;
-import com.sepulchre.model.LightningStrike;
+import com.sepulchre.model.FloorClock;
+import com.sepulchre.model.WizardPhase;
 import com.sepulchre.model.WizardStatue;
+import com.sepulchre.util.DangerGrid;
+import com.sepulchre.util.GameObjectRegistry;
+import com.sepulchre.util.IntHashSet;
+import com.sepulchre.util.IntIntHashMap;
+import com.sepulchre.util.LaneTables;
+import com.sepulchre.util.PerPlane;
+import com.sepulchre.util.ProjectileTracker;
 import com.sepulchre.util.SepulchreConstants;
+import com.sepulchre.util.TickWheel;
+import com.sepulchre.util.TileKey;
 import lombok.Getter;
 import net.runelite.api.Client;
+import net.runelite.api.CollisionData;
 import net.runelite.api.GameObject;
+import net.runelite.api.GraphicsObject;
 import net.runelite.api.NPC;
-import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.GroundObject;
+import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.GameObjectSpawned;
 import net.runelite.api.events.GameObjectDespawned;
 import net.runelite.api.events.GroundObjectSpawned;
@@ -20,53 +33,86 @@ import net.runelite.api.events.GraphicsObjectCreated;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 @Singleton
 public class ObstacleHandler
 {
-	private final Client client;
+	private static final IntHashSet PORTAL_GRAPHICS_IDS = IntHashSet.of(SepulchreConstants.PORTAL_GRAPHICS_IDS);
 
-	private Runnable onSepulchreDetected;
+	public static final int LIGHTNING_ACTIVE_TICKS = 3;
+	private static final int LIGHTNING_WARNING_TICKS = 3;
+	private static final int PORTAL_GLOW_TICKS = 5;
 
-	@Getter
-	private final List<LightningStrike> activeLightning = new ArrayList<>();
+	private static final int WIZARD_FIRE_TICKS = 2;
+	private static final int WIZARD_SAFE_TICKS = 4;
+	private static final int WIZARD_WARNING_TICKS = 2;
 
-	@Getter
-	private final List<CrossbowStatue> crossbowStatues = new ArrayList<>();
+	private static final int TIMER_PORTAL_GLOW = 1;
+	private static final int TIMER_LIGHTNING_LANDS = 2;
+	private static final int TIMER_LIGHTNING_EXPIRES = 3;
 
-	@Getter
-	private final List<WizardStatue> wizardStatues = new ArrayList<>();
+	private final Client client;
+	private final FloorLayouts floorLayouts;
 
-	@Getter
-	private final Set<NPC> boltNpcs = new HashSet<>();
+	private final TickWheel timers = new TickWheel(8);
+	private final TickWheel.ExpiryListener timerListener = this::onTimerExpired;
+
+	private Runnable onSepulchreDetected;
 
+	/**
+	 * Bumped on every change to the tracked hazard state, so renderers can tell when anything
+	 * derived from it is stale.
+	 */
 	@Getter
-	private final Set<NPC> swordNpcs = new HashSet<>();
+	private int generation;
+
+	/**
+	 * Packed tile -> tick on which the strike expires.
+	 */
+	private final PerPlane<IntIntHashMap> activeLightning = new PerPlane<>(() -> new IntIntHashMap(-1));
+
+	private final PerPlane<GameObjectRegistry<CrossbowStatue>> crossbowStatues = new PerPlane<>(GameObjectRegistry::new);
+	private final PerPlane<GameObjectRegistry<WizardStatue>> wizardStatues = new PerPlane<>(GameObjectRegistry::new);
+
+	/**
+	 * Wizards not yet locked to their floor's clock, which are still tracked from their animation
+	 * every tick.
+	 */
+	private final PerPlane<GameObjectRegistry<WizardStatue>> polledWizards = new PerPlane<>(GameObjectRegistry::new);
+	private final PerPlane<FloorClock> floorClocks = new PerPlane<>(() -> new FloorClock(WIZARD_FIRE_TICKS, WIZARD_SAFE_TICKS, WIZARD_WARNING_TICKS));
+
+	/**
+	 * Tiles currently covered by wizard fire, landed lightning, bolts or swords.
+	 */
+	@Getter
+	private final DangerGrid dangerGrid = new DangerGrid();
 
-	private final Set<WorldPoint> yellowPortalTileLocations = new HashSet<>();
-	private final Set<WorldPoint> bluePortalTileLocations = new HashSet<>();
+	private final PerPlane<ProjectileTracker> bolts = new PerPlane<>(() -> new ProjectileTracker(dangerGrid));
+	private final PerPlane<ProjectileTracker> swords = new PerPlane<>(() -> new ProjectileTracker(dangerGrid));
 
-	@Getter
-	private final Set<WorldPoint> activeYellowPortals = new HashSet<>();
+	private final IntHashSet yellowPortalTileLocations = new IntHashSet();
+	private final IntHashSet bluePortalTileLocations = new IntHashSet();
 
-	@Getter
-	private final Set<WorldPoint> activeBluePortals = new HashSet<>();
+	private final PerPlane<IntHashSet> activeYellowPortals = new PerPlane<>(IntHashSet::new);
+	private final PerPlane<IntHashSet> activeBluePortals = new PerPlane<>(IntHashSet::new);
 
+	/**
+	 * Packed tile -> tick on which the portal glow expires.
+	 */
 	@Getter
-	private final Map<WorldPoint, Integer> activePortalGraphics = new HashMap<>();
+	private final IntIntHashMap activePortalGraphics = new IntIntHashMap(-1);
 
-	private final Map<WorldPoint, Integer> pendingLightning = new HashMap<>();
+	/**
+	 * Packed tile -> tick on which the warned strike lands.
+	 */
+	@Getter
+	private final IntIntHashMap pendingLightning = new IntIntHashMap(-1);
 
 	@Inject
-	public ObstacleHandler(Client client)
+	public ObstacleHandler(Client client, FloorLayouts floorLayouts)
 	{
 		this.client = client;
+		this.floorLayouts = floorLayouts;
 	}
 
 	public void setOnSepulchreDetected(Runnable callback)
@@ -82,58 +128,129 @@ public class ObstacleHandler
 		}
 	}
 
+	/**
+	 * Game ticks since the last reset, as counted by the timer wheel.
+	 */
+	public int getTick()
+	{
+		return timers.getCurrentTick();
+	}
+
+	public IntIntHashMap getActiveLightning(int plane)
+	{
+		return activeLightning.get(plane);
+	}
+
+	public GameObjectRegistry<CrossbowStatue> getCrossbowStatues(int plane)
+	{
+		return crossbowStatues.get(plane);
+	}
+
+	public GameObjectRegistry<WizardStatue> getWizardStatues(int plane)
+	{
+		return wizardStatues.get(plane);
+	}
+
+	public ProjectileTracker getBolts(int plane)
+	{
+		return bolts.get(plane);
+	}
+
+	public ProjectileTracker getSwords(int plane)
+	{
+		return swords.get(plane);
+	}
+
+	public IntHashSet getActiveYellowPortals(int plane)
+	{
+		return activeYellowPortals.get(plane);
+	}
+
+	public IntHashSet getActiveBluePortals(int plane)
+	{
+		return activeBluePortals.get(plane);
+	}
+
 	public void reset()
 	{
-		activeLightning.clear();
-		crossbowStatues.clear();
-		wizardStatues.clear();
-		boltNpcs.clear();
-		swordNpcs.clear();
+		for (int plane = 0; plane < PerPlane.PLANES; plane++)
+		{
+			activeLightning.get(plane).clear();
+			crossbowStatues.get(plane).clear();
+			wizardStatues.get(plane).clear();
+			polledWizards.get(plane).clear();
+			floorClocks.get(plane).reset();
+			bolts.get(plane).clear();
+			swords.get(plane).clear();
+			activeYellowPortals.get(plane).clear();
+			activeBluePortals.get(plane).clear();
+		}
 		yellowPortalTileLocations.clear();
 		bluePortalTileLocations.clear();
-		activeYellowPortals.clear();
-		activeBluePortals.clear();
 		activePortalGraphics.clear();
 		pendingLightning.clear();
+		dangerGrid.clear();
+		timers.clear();
+		generation++;
 	}
 
 	public void onGameTick()
 	{
-		for (LightningStrike lightning : activeLightning)
-		{
-			lightning.onGameTick();
-		}
+		generation++;
 
-		for (WizardStatue wizard : wizardStatues)
+		for (int plane = 0; plane < PerPlane.PLANES; plane++)
 		{
-			wizard.onGameTick();
+			GameObjectRegistry<CrossbowStatue> crossbows = crossbowStatues.get(plane);
+			for (int i = 0; i < crossbows.size(); i++)
+			{
+				crossbows.get(i).sampleAnimation();
+			}
+
+			tickWizards(plane);
+
+			bolts.get(plane).update(client);
+			swords.get(plane).update(client);
 		}
 
-		activeLightning.removeIf(LightningStrike::isExpired);
+		timers.advance(timerListener);
+	}
 
-		activePortalGraphics.entrySet().removeIf(entry -> {
-			int remaining = entry.getValue() - 1;
-			if (remaining <= 0)
-			{
-				WorldPoint loc = entry.getKey();
-				activeYellowPortals.remove(loc);
-				activeBluePortals.remove(loc);
-				return true;
-			}
-			entry.setValue(remaining);
-			return false;
-		});
+	private void onTimerExpired(int timer, int tile)
+	{
+		int now = timers.getCurrentTick();
+		int plane = TileKey.getPlane(tile);
 
-		pendingLightning.entrySet().removeIf(entry -> {
-			int remaining = entry.getValue() - 1;
-			if (remaining <= 0)
-			{
-				activeLightning.add(new LightningStrike(entry.getKey(), 3));
-				return true;
-			}
-			entry.setValue(remaining);
-			return false;
-		});
+		switch (timer)
+		{
+			case TIMER_PORTAL_GLOW:
+				if (activePortalGraphics.get(tile) == now)
+				{
+					activePortalGraphics.remove(tile);
+					activeYellowPortals.get(plane).remove(tile);
+					activeBluePortals.get(plane).remove(tile);
+				}
+				break;
+			case TIMER_LIGHTNING_LANDS:
+				if (pendingLightning.get(tile) == now)
+				{
+					pendingLightning.remove(tile);
+					IntIntHashMap landed = activeLightning.get(plane);
+					if (!landed.containsKey(tile))
+					{
+						dangerGrid.add(tile);
+					}
+					landed.put(tile, timers.schedule(LIGHTNING_ACTIVE_TICKS, TIMER_LIGHTNING_EXPIRES, tile));
+				}
+				break;
+			case TIMER_LIGHTNING_EXPIRES:
+				IntIntHashMap lightning = activeLightning.get(plane);
+				if (lightning.get(tile) == now)
+				{
+					lightning.remove(tile);
+					dangerGrid.remove(tile);
+				}
+				break;
+		}
 	}
 
 	public void onGameObjectSpawned(GameObjectSpawned event)
@@ -143,73 +260,254 @@ public class ObstacleHandler
 
 	public void onGameObjectSpawned(GameObject gameObject)
 	{
-		int id = gameObject.getId();
+		switch (SepulchreConstants.OBJECT_KINDS.kindOf(gameObject.getId()))
+		{
+			case SepulchreConstants.KIND_CROSSBOW_STATUE:
+				onCrossbowStatueSpawned(gameObject);
+				break;
+			case SepulchreConstants.KIND_WIZARD_STATUE:
+				onWizardStatueSpawned(gameObject);
+				break;
+			case SepulchreConstants.KIND_PORTAL_YELLOW:
+				notifySepulchreDetected();
+				yellowPortalTileLocations.add(TileKey.pack(gameObject.getWorldLocation()));
+				generation++;
+				break;
+			case SepulchreConstants.KIND_PORTAL_BLUE:
+				notifySepulchreDetected();
+				bluePortalTileLocations.add(TileKey.pack(gameObject.getWorldLocation()));
+				generation++;
+				break;
+		}
+	}
+
+	private void onCrossbowStatueSpawned(GameObject gameObject)
+	{
+		notifySepulchreDetected();
+		GameObjectRegistry<CrossbowStatue> crossbows = crossbowStatues.get(gameObject.getPlane());
+		if (crossbows.contains(gameObject))
+		{
+			return;
+		}
+
+		CrossbowStatue statue = new CrossbowStatue(gameObject);
+		int tile = TileKey.pack(gameObject.getWorldLocation());
+		int[] lane = LaneTables.crossbowLaneTiles(tile, gameObject.getOrientation());
+		statue.setLaneTiles(LaneTables.clipLane(tile, lane, collisionFlags(gameObject.getPlane()), client.getBaseX(), client.getBaseY()));
+		statue.sampleAnimation();
+		crossbows.add(gameObject, statue);
+		generation++;
+	}
+
+	private int[][] collisionFlags(int plane)
+	{
+		CollisionData[] maps = client.getCollisionMaps();
+		return maps != null && plane < maps.length && maps[plane] != null ? maps[plane].getFlags() : null;
+	}
+
+	private void onWizardStatueSpawned(GameObject gameObject)
+	{
+		notifySepulchreDetected();
+		GameObjectRegistry<WizardStatue> wizards = wizardStatues.get(gameObject.getPlane());
+		if (wizards.contains(gameObject))
+		{
+			return;
+		}
 
-		if (SepulchreConstants.CROSSBOW_STATUE_IDS.contains(id))
+		WizardStatue wizard = new WizardStatue(gameObject);
+		wizard.setFirePhaseTicks(WIZARD_FIRE_TICKS);
+		wizard.setSafePhaseTicks(WIZARD_SAFE_TICKS);
+		wizard.setWarningPhaseTicks(WIZARD_WARNING_TICKS);
+		int tile = TileKey.pack(gameObject.getWorldLocation());
+		wizard.setFireTiles(LaneTables.wizardFireTiles(tile, gameObject.getOrientation()));
+		// only an active entry is acted on; see FloorLayouts#INACTIVE
+		if (floorLayouts.getWizardActivation(templateTile(gameObject), gameObject.getOrientation()) == FloorLayouts.ACTIVE)
+		{
+			wizard.setHasEverFired(true);
+		}
+		wizard.sampleAnimation();
+		if (wizard.isFiring())
 		{
-			notifySepulchreDetected();
-			for (CrossbowStatue existing : crossbowStatues)
+			dangerGrid.addAll(wizard.getFireTiles());
+		}
+		wizards.add(gameObject, wizard);
+		polledWizards.get(gameObject.getPlane()).add(gameObject, wizard);
+		generation++;
+	}
+
+	/**
+	 * Wizards locked to the floor clock cost nothing on ticks where the clock says none of them
+	 * is near a phase change. On its own phase changes, and the tick before each, a locked wizard
+	 * is checked against its animation, which is where a statue running early or late first
+	 * disagrees with the clock, so a wrong lock falls back to being polled within one cycle.
+	 */
+	private void tickWizards(int plane)
+	{
+		FloorClock clock = floorClocks.get(plane);
+		clock.advance(timers.getCurrentTick());
+		GameObjectRegistry<WizardStatue> wizards = wizardStatues.get(plane);
+
+		if (clock.isCheckTick())
+		{
+			for (int i = 0; i < wizards.size(); i++)
 			{
-				if (existing.getGameObject() == gameObject)
+				WizardStatue wizard = wizards.get(i);
+				if (!wizard.isClockCheckTick())
 				{
-					return;
+					continue;
+				}
+
+				if (wizard.isFiringTransition())
+				{
+					if (wizard.isFiring())
+					{
+						dangerGrid.addAll(wizard.getFireTiles());
+					}
+					else
+					{
+						dangerGrid.removeAll(wizard.getFireTiles());
+					}
+				}
+
+				wizard.sampleAnimation();
+				if (!wizard.matchesClock())
+				{
+					unlockWizard(plane, wizard);
 				}
 			}
-			crossbowStatues.add(new CrossbowStatue(gameObject));
-			return;
 		}
 
-		if (SepulchreConstants.WIZARD_FLAME_OBJECT_IDS.contains(id))
+		GameObjectRegistry<WizardStatue> polled = polledWizards.get(plane);
+		for (int i = polled.size() - 1; i >= 0; i--)
 		{
-			notifySepulchreDetected();
-			for (WizardStatue existing : wizardStatues)
+			WizardStatue wizard = polled.get(i);
+			WizardPhase before = wizard.getPhase();
+			boolean hadFired = wizard.isHasEverFired();
+			boolean wasThreatening = wizard.isConfirmedActiveOrUnknown();
+			wizard.onGameTick();
+			WizardPhase after = wizard.getPhase();
+			if (after != before)
 			{
-				if (existing.getGameObject() == gameObject)
+				if (before == WizardPhase.FIRING)
 				{
-					return;
+					dangerGrid.removeAll(wizard.getFireTiles());
+				}
+				else if (after == WizardPhase.FIRING)
+				{
+					dangerGrid.addAll(wizard.getFireTiles());
+				}
+
+				if (isCycleEdge(before, after))
+				{
+					wizard.lockTo(clock, after);
+					polled.remove(wizard.getGameObject());
 				}
 			}
-			WizardStatue wizard = new WizardStatue(gameObject);
-			wizard.setFirePhaseTicks(2);
-			wizard.setSafePhaseTicks(4);
-			wizard.setWarningPhaseTicks(2);
-			calculateWizardFlameFireTiles(wizard, gameObject.getOrientation());
-			wizardStatues.add(wizard);
-			return;
+			if (!hadFired && (wizard.isHasEverFired() || wizard.isConfirmedActiveOrUnknown() != wasThreatening))
+			{
+				learnActivation(wizard);
+			}
 		}
+	}
 
-		if (id == SepulchreConstants.PORTAL_YELLOW_ID)
+	/**
+	 * @return true if a statue going from {@code before} to {@code after} has just entered
+	 * {@code after} in its cycle, which fixes its place on the clock
+	 */
+	private static boolean isCycleEdge(WizardPhase before, WizardPhase after)
+	{
+		switch (after)
 		{
-			notifySepulchreDetected();
-			yellowPortalTileLocations.add(gameObject.getWorldLocation());
-			return;
+			case FIRING:
+				return true;
+			case SAFE:
+				return before == WizardPhase.FIRING;
+			default:
+				return before == WizardPhase.SAFE;
 		}
+	}
 
-		if (id == SepulchreConstants.PORTAL_BLUE_ID)
+	private void unlockWizard(int plane, WizardStatue wizard)
+	{
+		boolean wasFiring = wizard.isFiring();
+		wizard.unlock();
+		if (wizard.isFiring() != wasFiring)
 		{
-			notifySepulchreDetected();
-			bluePortalTileLocations.add(gameObject.getWorldLocation());
+			if (wasFiring)
+			{
+				dangerGrid.removeAll(wizard.getFireTiles());
+			}
+			else
+			{
+				dangerGrid.addAll(wizard.getFireTiles());
+			}
 		}
+		polledWizards.get(plane).add(wizard.getGameObject(), wizard);
+	}
+
+	/**
+	 * Records a wizard's activation once it first fires or sits out its check window, including a
+	 * wizard an earlier run had as inactive.
+	 */
+	private void learnActivation(WizardStatue wizard)
+	{
+		int activation = wizard.isHasEverFired() ? FloorLayouts.ACTIVE
+			: !wizard.isConfirmedActiveOrUnknown() ? FloorLayouts.INACTIVE
+			: FloorLayouts.UNKNOWN;
+		if (activation != FloorLayouts.UNKNOWN)
+		{
+			GameObject gameObject = wizard.getGameObject();
+			floorLayouts.learnWizard(templateTile(gameObject), gameObject.getOrientation(), activation);
+		}
+	}
+
+	/**
+	 * The object's tile in the instance template, which stays the same from run to run where
+	 * its world tile does not.
+	 */
+	private int templateTile(GameObject gameObject)
+	{
+		return TileKey.pack(WorldPoint.fromLocalInstance(client, gameObject.getLocalLocation()));
 	}
 
 	public void onGameObjectDespawned(GameObjectDespawned event)
 	{
 		GameObject gameObject = event.getGameObject();
-		WorldPoint location = gameObject.getWorldLocation();
 
-		crossbowStatues.removeIf(statue -> statue.getGameObject() == gameObject);
-		wizardStatues.removeIf(statue -> statue.getGameObject() == gameObject);
+		int plane = gameObject.getPlane();
+
+		if (crossbowStatues.get(plane).remove(gameObject) != null)
+		{
+			generation++;
+			return;
+		}
+
+		WizardStatue wizard = wizardStatues.get(plane).remove(gameObject);
+		if (wizard != null)
+		{
+			polledWizards.get(plane).remove(gameObject);
+			if (wizard.isFiring())
+			{
+				dangerGrid.removeAll(wizard.getFireTiles());
+			}
+			generation++;
+			return;
+		}
 
 		int id = gameObject.getId();
 		if (id == SepulchreConstants.PORTAL_YELLOW_ID)
 		{
-			yellowPortalTileLocations.remove(location);
-			activeYellowPortals.remove(location);
+			int tile = TileKey.pack(gameObject.getWorldLocation());
+			yellowPortalTileLocations.remove(tile);
+			activeYellowPortals.get(TileKey.getPlane(tile)).remove(tile);
+			generation++;
 		}
 		else if (id == SepulchreConstants.PORTAL_BLUE_ID)
 		{
-			bluePortalTileLocations.remove(location);
-			activeBluePortals.remove(location);
+			int tile = TileKey.pack(gameObject.getWorldLocation());
+			bluePortalTileLocations.remove(tile);
+			activeBluePortals.get(TileKey.getPlane(tile)).remove(tile);
+			generation++;
 		}
 	}
 
@@ -220,11 +518,13 @@ public class ObstacleHandler
 
 		if (id == SepulchreConstants.PORTAL_YELLOW_ID)
 		{
-			yellowPortalTileLocations.add(groundObject.getWorldLocation());
+			yellowPortalTileLocations.add(TileKey.pack(groundObject.getWorldLocation()));
+			generation++;
 		}
 		else if (id == SepulchreConstants.PORTAL_BLUE_ID)
 		{
-			bluePortalTileLocations.add(groundObject.getWorldLocation());
+			bluePortalTileLocations.add(TileKey.pack(groundObject.getWorldLocation()));
+			generation++;
 		}
 	}
 
@@ -232,118 +532,82 @@ public class ObstacleHandler
 	{
 		GroundObject groundObject = event.getGroundObject();
 		int id = groundObject.getId();
-		WorldPoint location = groundObject.getWorldLocation();
 
 		if (id == SepulchreConstants.PORTAL_YELLOW_ID)
 		{
-			yellowPortalTileLocations.remove(location);
-			activeYellowPortals.remove(location);
+			int tile = TileKey.pack(groundObject.getWorldLocation());
+			yellowPortalTileLocations.remove(tile);
+			activeYellowPortals.get(TileKey.getPlane(tile)).remove(tile);
+			generation++;
 		}
 		else if (id == SepulchreConstants.PORTAL_BLUE_ID)
 		{
-			bluePortalTileLocations.remove(location);
-			activeBluePortals.remove(location);
+			int tile = TileKey.pack(groundObject.getWorldLocation());
+			bluePortalTileLocations.remove(tile);
+			activeBluePortals.get(TileKey.getPlane(tile)).remove(tile);
+			generation++;
 		}
 	}
 
 	public void onNpcSpawned(NpcSpawned event)
 	{
 		NPC npc = event.getNpc();
-		int id = npc.getId();
 
-		if (SepulchreConstants.BOLT_NULL_NPC_IDS.contains(id))
-		{
-			notifySepulchreDetected();
-			boltNpcs.add(npc);
-		}
-		else if (SepulchreConstants.SWORD_NULL_NPC_IDS.contains(id))
+		switch (SepulchreConstants.NPC_KINDS.kindOf(npc.getId()))
 		{
-			notifySepulchreDetected();
-			swordNpcs.add(npc);
+			case SepulchreConstants.KIND_BOLT_NPC:
+				notifySepulchreDetected();
+				bolts.get(npc.getWorldLocation().getPlane()).add(npc);
+				generation++;
+				break;
+			case SepulchreConstants.KIND_SWORD_NPC:
+				notifySepulchreDetected();
+				swords.get(npc.getWorldLocation().getPlane()).add(npc);
+				generation++;
+				break;
 		}
 	}
 
 	public void onNpcDespawned(NpcDespawned event)
 	{
 		NPC npc = event.getNpc();
-		boltNpcs.remove(npc);
-		swordNpcs.remove(npc);
+		for (int plane = 0; plane < PerPlane.PLANES; plane++)
+		{
+			if (bolts.get(plane).remove(npc) | swords.get(plane).remove(npc))
+			{
+				generation++;
+			}
+		}
 	}
 
 	public void onGraphicsObjectCreated(GraphicsObjectCreated event)
 	{
-		int graphicsId = event.getGraphicsObject().getId();
-		WorldPoint location = WorldPoint.fromLocal(client, event.getGraphicsObject().getLocation());
+		GraphicsObject graphicsObject = event.getGraphicsObject();
+		int graphicsId = graphicsObject.getId();
 
 		if (graphicsId == SepulchreConstants.LIGHTNING_GRAPHICS_ID)
 		{
-			pendingLightning.put(location, 3);
+			int tile = TileKey.fromLocal(client, graphicsObject.getLocation());
+			pendingLightning.put(tile, timers.schedule(LIGHTNING_WARNING_TICKS, TIMER_LIGHTNING_LANDS, tile));
+			generation++;
 			return;
 		}
 
-		if (SepulchreConstants.PORTAL_GRAPHICS_IDS.contains(graphicsId))
+		if (PORTAL_GRAPHICS_IDS.contains(graphicsId))
 		{
-			if (yellowPortalTileLocations.contains(location))
+			int tile = TileKey.fromLocal(client, graphicsObject.getLocation());
+			if (yellowPortalTileLocations.contains(tile))
 			{
-				activeYellowPortals.add(location);
-				activePortalGraphics.put(location, 5);
+				activeYellowPortals.get(TileKey.getPlane(tile)).add(tile);
+				activePortalGraphics.put(tile, timers.schedule(PORTAL_GLOW_TICKS, TIMER_PORTAL_GLOW, tile));
+				generation++;
 			}
-			else if (bluePortalTileLocations.contains(location))
+			else if (bluePortalTileLocations.contains(tile))
 			{
-				activeBluePortals.add(location);
-				activePortalGraphics.put(location, 5);
+				activeBluePortals.get(TileKey.getPlane(tile)).add(tile);
+				activePortalGraphics.put(tile, timers.schedule(PORTAL_GLOW_TICKS, TIMER_PORTAL_GLOW, tile));
+				generation++;
 			}
 		}
 	}
-
-	private void calculateWizardFlameFireTiles(WizardStatue wizard, int orientation)
-	{
-		WorldPoint location = wizard.getLocation();
-		int[] offsets = getWizardFlameOffsets(orientation);
-
-		int startX = location.getX() + offsets[2];
-		int startY = location.getY() + offsets[3];
-
-		for (int i = offsets[4]; i <= offsets[4] + 2; i++)
-		{
-			wizard.addFireTile(new WorldPoint(
-				startX + (offsets[0] * i),
-				startY + (offsets[1] * i),
-				location.getPlane()
-			));
-		}
-	}
-
-	private int[] getWizardFlameOffsets(int orientation)
-	{
-		int dx = 0;
-		int dy = 0;
-		int rightHandOffsetX = 0;
-		int rightHandOffsetY = 0;
-		int startOffset = 2;
-
-		if (orientation >= 1280 && orientation < 1792)
-		{
-			dx = 1;
-			startOffset = 2;
-		}
-		else if (orientation >= 768 && orientation < 1280)
-		{
-			dy = 1;
-			rightHandOffsetX = 1;
-		}
-		else if (orientation >= 256 && orientation < 768)
-		{
-			dx = -1;
-			rightHandOffsetY = 1;
-			startOffset = 1;
-		}
-		else
-		{
-			dy = -1;
-			startOffset = 1;
-		}
-
-		return new int[] { dx, dy, rightHandOffsetX, rightHandOffsetY, startOffset };
-	}
 }
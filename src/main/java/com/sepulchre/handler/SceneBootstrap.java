@@ -0,0 +1,169 @@
+package com.sepulchre.handler;
+
+import com.sepulchre.recording.EventRecorder;
+import com.sepulchre.util.IdKindTable;
+import com.sepulchre.util.SepulchreConstants;
+import net.runelite.api.Client;
+import net.runelite.api.Constants;
+import net.runelite.api.GameObject;
+import net.runelite.api.GroundObject;
+import net.runelite.api.NPC;
+import net.runelite.api.Scene;
+import net.runelite.api.Tile;
+import net.runelite.api.WorldView;
+import net.runelite.api.events.GameObjectSpawned;
+import net.runelite.api.events.GroundObjectSpawned;
+import net.runelite.api.events.NpcSpawned;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Fills the {@link ObstacleHandler} from the loaded scene when the plugin starts after the scene
+ * has already loaded, so no spawn events will arrive for what is already there.
+ * <p>
+ * Tiles are scanned in slices under a time budget per call, and every statue, portal and
+ * projectile NPC found is handed to the handler, and to the recorder, as the spawn event the
+ * client would have raised. Other objects are skipped.
+ * Spawn events that arrive while the scan is running are harmless: the handler ignores objects it
+ * already tracks. Lightning and portal graphics are not scanned, as their remaining time cannot
+ * be read back; they are picked up from their next event.
+ */
+@Singleton
+public class SceneBootstrap
+{
+	private static final int TILES_PER_PLANE = Constants.SCENE_SIZE * Constants.SCENE_SIZE;
+	private static final int TILE_COUNT = Constants.MAX_Z * TILES_PER_PLANE;
+
+	/**
+	 * Tiles scanned between clock reads.
+	 */
+	private static final int SLICE = 256;
+
+	private final Client client;
+	private final ObstacleHandler obstacleHandler;
+	private final EventRecorder eventRecorder;
+
+	private final GameObjectSpawned gameObjectSpawned = new GameObjectSpawned();
+	private final GroundObjectSpawned groundObjectSpawned = new GroundObjectSpawned();
+
+	private boolean running;
+	private int nextTile;
+
+	@Inject
+	public SceneBootstrap(Client client, ObstacleHandler obstacleHandler, EventRecorder eventRecorder)
+	{
+		this.client = client;
+		this.obstacleHandler = obstacleHandler;
+		this.eventRecorder = eventRecorder;
+	}
+
+	public boolean isRunning()
+	{
+		return running;
+	}
+
+	public void start()
+	{
+		running = true;
+		nextTile = 0;
+	}
+
+	/**
+	 * Abandons a running scan, for when the scene is about to reload and raise its own events.
+	 */
+	public void cancel()
+	{
+		running = false;
+	}
+
+	/**
+	 * Scans tiles until the scene is done or {@code budgetNanos} has passed, adding the NPCs once
+	 * every tile has been scanned.
+	 *
+	 * @return true once the scan has finished
+	 */
+	public boolean step(long budgetNanos)
+	{
+		if (!running)
+		{
+			return true;
+		}
+
+		WorldView worldView = client.getTopLevelWorldView();
+		Scene scene = worldView != null ? worldView.getScene() : null;
+		if (scene == null)
+		{
+			running = false;
+			return true;
+		}
+
+		Tile[][][] tiles = scene.getTiles();
+		long deadline = System.nanoTime() + budgetNanos;
+		while (nextTile < TILE_COUNT)
+		{
+			int end = Math.min(nextTile + SLICE, TILE_COUNT);
+			for (; nextTile < end; nextTile++)
+			{
+				int plane = nextTile / TILES_PER_PLANE;
+				int index = nextTile % TILES_PER_PLANE;
+				Tile tile = tiles[plane][index / Constants.SCENE_SIZE][index % Constants.SCENE_SIZE];
+				if (tile != null)
+				{
+					scanTile(tile);
+				}
+			}
+
+			if (System.nanoTime() >= deadline)
+			{
+				return false;
+			}
+		}
+
+		for (NPC npc : worldView.npcs())
+		{
+			if (npc == null || SepulchreConstants.NPC_KINDS.kindOf(npc.getId()) == IdKindTable.NONE)
+			{
+				continue;
+			}
+
+			eventRecorder.recordNpcSpawned(npc);
+			obstacleHandler.onNpcSpawned(new NpcSpawned(npc));
+		}
+
+		running = false;
+		return true;
+	}
+
+	private void scanTile(Tile tile)
+	{
+		GameObject[] gameObjects = tile.getGameObjects();
+		if (gameObjects != null)
+		{
+			for (GameObject gameObject : gameObjects)
+			{
+				// an object larger than a tile is listed on every tile it covers; take it once, from
+				// its south-west corner, as the client's own spawn event does
+				if (gameObject == null || SepulchreConstants.OBJECT_KINDS.kindOf(gameObject.getId()) == IdKindTable.NONE
+					|| !gameObject.getSceneMinLocation().equals(tile.getSceneLocation()))
+				{
+					continue;
+				}
+
+				eventRecorder.recordGameObjectSpawned(gameObject);
+				gameObjectSpawned.setTile(tile);
+				gameObjectSpawned.setGameObject(gameObject);
+				obstacleHandler.onGameObjectSpawned(gameObjectSpawned);
+			}
+		}
+
+		GroundObject groundObject = tile.getGroundObject();
+		if (groundObject != null && SepulchreConstants.OBJECT_KINDS.kindOf(groundObject.getId()) != IdKindTable.NONE)
+		{
+			eventRecorder.recordGroundObjectSpawned(groundObject);
+			groundObjectSpawned.setTile(tile);
+			groundObjectSpawned.setGroundObject(groundObject);
+			obstacleHandler.onGroundObjectSpawned(groundObjectSpawned);
+		}
+	}
+}
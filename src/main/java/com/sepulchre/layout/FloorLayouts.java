@@ -0,0 +1,200 @@
+package com.sepulchre.layout;
+
+import com.sepulchre.util.IntIntHashMap;
+import com.sepulchre.util.LaneTables;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Learned activation cache: which wizard statues on each floor actually fire, so a statue that
+ * has been seen firing before is a threat from its first tick instead of only once it fires.
+ * <p>
+ * Nothing is bundled with the plugin: there is no verified survey of every floor to ship, and an
+ * unverified one would be trusted on exactly the runs it is wrong. A floor is learned the first
+ * time it is played, and until then its statues are checked as they always were.
+ * <p>
+ * Entries are learned while playing and kept in a file in the RuneLite directory. They are keyed
+ * on the statue's template tile, as the Sepulchre is instanced and its world tiles change from
+ * run to run. An entry only applies when the spawned statue faces the same way as when it was
+ * learned, which a chunk rotated differently from that run does not; otherwise the statue is
+ * learned again. Fire lanes are not stored, as they are derived from the orientation through
+ * {@link LaneTables} at spawn.
+ * <p>
+ * The cache belongs to the client thread. The file is read and written elsewhere, as bytes
+ * handed over through {@link #load(byte[])} and {@link #snapshot()}.
+ * <p>
+ * File layout, big-endian: {@link #MAGIC}, {@link #VERSION} short, entry count int, then per
+ * entry the packed template tile int, orientation bucket byte and activation byte.
+ */
+@Slf4j
+@Singleton
+public class FloorLayouts
+{
+	public static final int MAGIC = 0x5345504C;
+
+	/**
+	 * Version 1 files were keyed on instance tiles, which never match again, and are ignored.
+	 */
+	public static final short VERSION = 2;
+
+	public static final int UNKNOWN = 0;
+	public static final int ACTIVE = 1;
+
+	/**
+	 * A statue that sat out its whole check window on some run. Only a hint: a statue can be idle
+	 * on one run and fire on the next, so it is still checked, and warned about, as an unknown one.
+	 */
+	public static final int INACTIVE = 2;
+
+	private static final int HEADER_SIZE = 10;
+	private static final int ENTRY_SIZE = 6;
+
+	/**
+	 * Packed template tile -> orientation bucket << 8 | activation.
+	 */
+	private final IntIntHashMap wizards = new IntIntHashMap(-1);
+	private boolean dirty;
+
+	public int size()
+	{
+		return wizards.size();
+	}
+
+	/**
+	 * @return the contents of {@code learned}, or null if it does not exist or cannot be read
+	 */
+	public static byte[] read(File learned)
+	{
+		if (!learned.isFile())
+		{
+			return null;
+		}
+
+		try
+		{
+			return Files.readAllBytes(learned.toPath());
+		}
+		catch (IOException ex)
+		{
+			log.warn("unable to read learned floor layouts from {}", learned, ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Replaces every entry with those in {@code learned}, as returned by {@link #read(File)}.
+	 */
+	public void load(byte[] learned)
+	{
+		wizards.clear();
+		dirty = false;
+		if (learned == null)
+		{
+			return;
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(learned);
+		try
+		{
+			if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION)
+			{
+				log.warn("ignoring learned floor layouts with an unknown header");
+				return;
+			}
+
+			int count = buffer.getInt();
+			for (int i = 0; i < count; i++)
+			{
+				int tile = buffer.getInt();
+				int bucket = buffer.get() & 0xFF;
+				int activation = buffer.get() & 0xFF;
+				if (activation == ACTIVE || activation == INACTIVE)
+				{
+					wizards.put(tile, bucket << 8 | activation);
+				}
+			}
+		}
+		catch (BufferUnderflowException ex)
+		{
+			log.warn("learned floor layouts are truncated");
+		}
+	}
+
+	/**
+	 * Encodes every entry for {@link #write(File, byte[])}.
+	 *
+	 * @return the encoded entries, or null if nothing was learned since the last load or snapshot
+	 */
+	public byte[] snapshot()
+	{
+		if (!dirty)
+		{
+			return null;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + wizards.size() * ENTRY_SIZE);
+		buffer.putInt(MAGIC).putShort(VERSION).putInt(wizards.size());
+		for (int i = 0; i < wizards.size(); i++)
+		{
+			int value = wizards.valueAt(i);
+			buffer.putInt(wizards.keyAt(i)).put((byte) (value >> 8)).put((byte) value);
+		}
+		dirty = false;
+		return buffer.array();
+	}
+
+	/**
+	 * Replaces {@code learned} with a {@link #snapshot()}, through a temporary file so a failed
+	 * write leaves the previous contents in place.
+	 */
+	public static void write(File learned, byte[] snapshot)
+	{
+		File directory = learned.getAbsoluteFile().getParentFile();
+		File temp = new File(directory, learned.getName() + ".tmp");
+		try
+		{
+			Files.createDirectories(directory.toPath());
+			Files.write(temp.toPath(), snapshot);
+			Files.move(temp.toPath(), learned.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException ex)
+		{
+			log.warn("unable to save floor layouts to {}", learned, ex);
+		}
+	}
+
+	/**
+	 * @param tile packed template tile of the statue
+	 * @return {@link #ACTIVE}, {@link #INACTIVE}, or {@link #UNKNOWN} when the statue has not been
+	 * seen or was seen facing another way
+	 */
+	public int getWizardActivation(int tile, int orientation)
+	{
+		int value = wizards.get(tile);
+		if (value == -1 || value >> 8 != LaneTables.orientationBucket(orientation))
+		{
+			return UNKNOWN;
+		}
+		return value & 0xFF;
+	}
+
+	/**
+	 * @param tile packed template tile of the statue
+	 */
+	public void learnWizard(int tile, int orientation, int activation)
+	{
+		int value = LaneTables.orientationBucket(orientation) << 8 | activation;
+		if (wizards.get(tile) != value)
+		{
+			wizards.put(tile, value);
+			dirty = true;
+		}
+	}
+}
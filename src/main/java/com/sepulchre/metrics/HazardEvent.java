@@ -0,0 +1,40 @@
+package com.sepulchre.metrics;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Floor and hazard state shared by the slow tick and slow frame events.
+ */
+abstract class HazardEvent extends Event
+{
+	@Label("Region")
+	int region;
+
+	@Label("Plane")
+	int plane;
+
+	@Label("Handler Tick")
+	int handlerTick;
+
+	@Label("Handler Generation")
+	int handlerGeneration;
+
+	@Label("Wizard Statues")
+	int wizards;
+
+	@Label("Firing Wizards")
+	int firingWizards;
+
+	@Label("Crossbow Statues")
+	int crossbows;
+
+	@Label("Lightning Tiles")
+	int lightning;
+
+	@Label("Bolts")
+	int bolts;
+
+	@Label("Swords")
+	int swords;
+}
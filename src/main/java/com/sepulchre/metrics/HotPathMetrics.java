@@ -0,0 +1,148 @@
+package com.sepulchre.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import javax.inject.Singleton;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Always-on latency histograms for the handler's event entry points and the overlay's render
+ * passes, plus counters for projections, cache hits and draw calls. Recording is lock-free and
+ * allocation-free; only reading a {@link #summary()} allocates.
+ */
+@Singleton
+public class HotPathMetrics
+{
+	@Getter
+	@RequiredArgsConstructor
+	public enum Timer
+	{
+		GAME_TICK("Game tick"),
+		OBJECT_SPAWNED("Object spawned"),
+		OBJECT_DESPAWNED("Object despawned"),
+		GROUND_OBJECT_SPAWNED("Ground object spawned"),
+		GROUND_OBJECT_DESPAWNED("Ground object despawned"),
+		NPC_SPAWNED("NPC spawned"),
+		NPC_DESPAWNED("NPC despawned"),
+		GRAPHICS_OBJECT_CREATED("Graphics object"),
+		SAFE_PATH("Safe path"),
+		SCENE_BOOTSTRAP("Scene bootstrap"),
+		RENDER_FRAME("Frame"),
+		RENDER_LIGHTNING("Lightning"),
+		RENDER_WIZARDS("Wizards"),
+		RENDER_PORTALS("Portals"),
+		RENDER_PROJECTILE_LANES("Projectile lanes"),
+		RENDER_CROSSBOW_LANES("Crossbow lanes"),
+		RENDER_SAFE_PATH("Safe path overlay"),
+		RENDER_TICK_COUNTERS("Tick counters"),
+		RENDER_CROSSBOWS("Crossbows"),
+		RENDER_BOLTS("Bolts"),
+		RENDER_SWORDS("Swords");
+
+		private final String label;
+	}
+
+	@Getter
+	@RequiredArgsConstructor
+	public enum Counter
+	{
+		PROJECTIONS("Projections"),
+		TILE_CACHE_HITS("Tile cache hits"),
+		TILE_CACHE_MISSES("Tile cache misses"),
+		SHAPE_CACHE_HITS("Shape cache hits"),
+		SHAPE_CACHE_MISSES("Shape cache misses"),
+		DISPLAY_LIST_REPLAYS("Display list replays"),
+		DISPLAY_LIST_RECORDS("Display list records"),
+		DRAW_CALLS("Draw calls");
+
+		private final String label;
+	}
+
+	private static final Timer[] TIMERS = Timer.values();
+	private static final Counter[] COUNTERS = Counter.values();
+
+	private final LatencyHistogram[] histograms = new LatencyHistogram[TIMERS.length];
+	private final AtomicLongArray counters = new AtomicLongArray(COUNTERS.length);
+
+	public HotPathMetrics()
+	{
+		for (int i = 0; i < histograms.length; i++)
+		{
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	/**
+	 * Records the time since {@code startNanos}, a {@link System#nanoTime()} reading.
+	 */
+	public void record(Timer timer, long startNanos)
+	{
+		histograms[timer.ordinal()].record(System.nanoTime() - startNanos);
+	}
+
+	public void increment(Counter counter)
+	{
+		counters.incrementAndGet(counter.ordinal());
+	}
+
+	public void add(Counter counter, long delta)
+	{
+		counters.addAndGet(counter.ordinal(), delta);
+	}
+
+	public LatencyHistogram getHistogram(Timer timer)
+	{
+		return histograms[timer.ordinal()];
+	}
+
+	public long getCount(Counter counter)
+	{
+		return counters.get(counter.ordinal());
+	}
+
+	public void reset()
+	{
+		for (LatencyHistogram histogram : histograms)
+		{
+			histogram.reset();
+		}
+		for (int i = 0; i < COUNTERS.length; i++)
+		{
+			counters.set(i, 0);
+		}
+	}
+
+	/**
+	 * One line with count, mean, p99 and max in microseconds for every timer that has samples,
+	 * followed by every counter.
+	 */
+	public String summary()
+	{
+		StringBuilder sb = new StringBuilder("Sepulchre metrics:");
+		for (Timer timer : TIMERS)
+		{
+			LatencyHistogram histogram = getHistogram(timer);
+			if (histogram.getCount() == 0)
+			{
+				continue;
+			}
+			sb.append(' ').append(timer.getLabel())
+				.append(" n=").append(histogram.getCount())
+				.append(" mean=").append(micros(histogram.getMeanNanos()))
+				.append(" p99=").append(micros(histogram.getPercentileNanos(0.99)))
+				.append(" max=").append(micros(histogram.getMaxNanos()))
+				.append("us;");
+		}
+		for (Counter counter : COUNTERS)
+		{
+			sb.append(' ').append(counter.getLabel()).append('=').append(getCount(counter)).append(';');
+		}
+		return sb.toString();
+	}
+
+	public static String micros(long nanos)
+	{
+		return String.format("%.1f", nanos / 1000.0);
+	}
+}
@@ -0,0 +1,97 @@
+package com.sepulchre.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two nanosecond buckets: bucket {@code b} holds samples
+ * below {@code 2^b} ns. Recording is a handful of uncontended atomic updates and never allocates;
+ * percentiles are reported as the upper bound of the bucket they fall in.
+ */
+public final class LatencyHistogram
+{
+	private static final int BUCKETS = 40;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	public void record(long nanos)
+	{
+		if (nanos < 0)
+		{
+			nanos = 0;
+		}
+
+		buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos)));
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+
+		long max = maxNanos.get();
+		while (nanos > max && !maxNanos.compareAndSet(max, nanos))
+		{
+			max = maxNanos.get();
+		}
+	}
+
+	public long getCount()
+	{
+		return count.get();
+	}
+
+	public long getTotalNanos()
+	{
+		return totalNanos.get();
+	}
+
+	public long getMaxNanos()
+	{
+		return maxNanos.get();
+	}
+
+	public long getMeanNanos()
+	{
+		long samples = count.get();
+		return samples == 0 ? 0 : totalNanos.get() / samples;
+	}
+
+	/**
+	 * @param fraction between 0 and 1, e.g. 0.99
+	 * @return upper bound in nanoseconds of the bucket holding that fraction of samples, or 0 when empty
+	 */
+	public long getPercentileNanos(double fraction)
+	{
+		long samples = count.get();
+		if (samples == 0)
+		{
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(samples * fraction));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++)
+		{
+			seen += buckets.get(bucket);
+			if (seen >= rank)
+			{
+				return Math.min(1L << bucket, getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+
+	/**
+	 * Not atomic with concurrent {@link #record(long)} calls; a sample racing a reset may be half counted.
+	 */
+	public void reset()
+	{
+		for (int bucket = 0; bucket < BUCKETS; bucket++)
+		{
+			buckets.set(bucket, 0);
+		}
+		count.set(0);
+		totalNanos.set(0);
+		maxNanos.set(0);
+	}
+}
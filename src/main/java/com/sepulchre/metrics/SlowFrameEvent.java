@@ -0,0 +1,23 @@
+package com.sepulchre.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.sepulchre.SlowFrame")
+@Label("Sepulchre Slow Frame")
+@Description("A Sepulchre overlay frame that took longer than the configured threshold")
+@Category({"RuneLite", "Sepulchre"})
+@StackTrace(false)
+class SlowFrameEvent extends HazardEvent
+{
+	@Label("Frame Duration")
+	@Timespan(Timespan.NANOSECONDS)
+	long frameDuration;
+
+	@Label("Draw Calls")
+	int drawCalls;
+}
@@ -0,0 +1,166 @@
+package com.sepulchre.metrics;
+
+import com.sepulchre.handler.ObstacleHandler;
+import com.sepulchre.model.WizardStatue;
+import com.sepulchre.util.GameObjectRegistry;
+import net.runelite.api.Client;
+import net.runelite.api.Player;
+import net.runelite.api.coords.WorldPoint;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits {@code com.sepulchre.SlowTick} and {@code com.sepulchre.SlowFrame} JFR events when a game
+ * tick or overlay frame crosses the configured threshold, and keeps the last
+ * {@link #HISTORY_SIZE} ticks in a ring buffer for {@link #dumpTickHistory()}.
+ * <p>
+ * The fast path only writes primitives into preallocated arrays; events are allocated only for
+ * slow ticks and frames.
+ */
+@Singleton
+public class SlowPathMonitor
+{
+	public static final int HISTORY_SIZE = 256;
+
+	private final Client client;
+	private final ObstacleHandler obstacleHandler;
+
+	private volatile long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(5);
+
+	private final long[] historyDuration = new long[HISTORY_SIZE];
+	private final int[] historyTick = new int[HISTORY_SIZE];
+	private final int[] historyGeneration = new int[HISTORY_SIZE];
+	private final int[] historyWizards = new int[HISTORY_SIZE];
+	private final int[] historyFiringWizards = new int[HISTORY_SIZE];
+	private final int[] historyCrossbows = new int[HISTORY_SIZE];
+	private final int[] historyLightning = new int[HISTORY_SIZE];
+	private final int[] historyProjectiles = new int[HISTORY_SIZE];
+	private int historyNext;
+	private int historySize;
+
+	@Inject
+	public SlowPathMonitor(Client client, ObstacleHandler obstacleHandler)
+	{
+		this.client = client;
+		this.obstacleHandler = obstacleHandler;
+	}
+
+	public void setThresholdMillis(int millis)
+	{
+		thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+	}
+
+	/**
+	 * Called on the client thread after the handler's tick.
+	 */
+	public void onTick(long startNanos, long endNanos)
+	{
+		long duration = endNanos - startNanos;
+		int plane = client.getPlane();
+		GameObjectRegistry<WizardStatue> wizards = obstacleHandler.getWizardStatues(plane);
+		int firingWizards = countFiring(wizards);
+
+		int slot = historyNext;
+		historyDuration[slot] = duration;
+		historyTick[slot] = obstacleHandler.getTick();
+		historyGeneration[slot] = obstacleHandler.getGeneration();
+		historyWizards[slot] = wizards.size();
+		historyFiringWizards[slot] = firingWizards;
+		historyCrossbows[slot] = obstacleHandler.getCrossbowStatues(plane).size();
+		historyLightning[slot] = obstacleHandler.getActiveLightning(plane).size();
+		historyProjectiles[slot] = obstacleHandler.getBolts(plane).size() + obstacleHandler.getSwords(plane).size();
+		historyNext = (slot + 1) % HISTORY_SIZE;
+		historySize = Math.min(historySize + 1, HISTORY_SIZE);
+
+		if (duration >= thresholdNanos)
+		{
+			SlowTickEvent event = new SlowTickEvent();
+			event.tickDuration = duration;
+			fill(event, plane, firingWizards);
+			event.commit();
+		}
+	}
+
+	/**
+	 * Called on the client thread at the end of an overlay frame.
+	 */
+	public void onFrame(long startNanos, long endNanos, int drawCalls)
+	{
+		long duration = endNanos - startNanos;
+		if (duration < thresholdNanos)
+		{
+			return;
+		}
+
+		int plane = client.getPlane();
+		SlowFrameEvent event = new SlowFrameEvent();
+		event.frameDuration = duration;
+		event.drawCalls = drawCalls;
+		fill(event, plane, countFiring(obstacleHandler.getWizardStatues(plane)));
+		event.commit();
+	}
+
+	/**
+	 * The recorded ticks, oldest first, one per line.
+	 */
+	public String dumpTickHistory()
+	{
+		StringBuilder sb = new StringBuilder("Sepulchre last ").append(historySize).append(" ticks:");
+		int first = (historyNext - historySize + HISTORY_SIZE) % HISTORY_SIZE;
+		for (int i = 0; i < historySize; i++)
+		{
+			int slot = (first + i) % HISTORY_SIZE;
+			sb.append("\n  tick=").append(historyTick[slot])
+				.append(" us=").append(HotPathMetrics.micros(historyDuration[slot]))
+				.append(" gen=").append(historyGeneration[slot])
+				.append(" wizards=").append(historyWizards[slot])
+				.append(" firing=").append(historyFiringWizards[slot])
+				.append(" crossbows=").append(historyCrossbows[slot])
+				.append(" lightning=").append(historyLightning[slot])
+				.append(" projectiles=").append(historyProjectiles[slot]);
+		}
+		return sb.toString();
+	}
+
+	public void clearTickHistory()
+	{
+		historyNext = 0;
+		historySize = 0;
+	}
+
+	private void fill(HazardEvent event, int plane, int firingWizards)
+	{
+		event.region = getRegion();
+		event.plane = plane;
+		event.handlerTick = obstacleHandler.getTick();
+		event.handlerGeneration = obstacleHandler.getGeneration();
+		event.wizards = obstacleHandler.getWizardStatues(plane).size();
+		event.firingWizards = firingWizards;
+		event.crossbows = obstacleHandler.getCrossbowStatues(plane).size();
+		event.lightning = obstacleHandler.getActiveLightning(plane).size();
+		event.bolts = obstacleHandler.getBolts(plane).size();
+		event.swords = obstacleHandler.getSwords(plane).size();
+	}
+
+	private int getRegion()
+	{
+		Player player = client.getLocalPlayer();
+		WorldPoint location = player != null ? player.getWorldLocation() : null;
+		return location != null ? location.getRegionID() : -1;
+	}
+
+	private static int countFiring(GameObjectRegistry<WizardStatue> wizards)
+	{
+		int firing = 0;
+		for (int i = 0; i < wizards.size(); i++)
+		{
+			if (wizards.get(i).isFiring())
+			{
+				firing++;
+			}
+		}
+		return firing;
+	}
+}
@@ -0,0 +1,20 @@
+package com.sepulchre.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.sepulchre.SlowTick")
+@Label("Sepulchre Slow Tick")
+@Description("A Sepulchre game tick that took longer than the configured threshold")
+@Category({"RuneLite", "Sepulchre"})
+@StackTrace(false)
+class SlowTickEvent extends HazardEvent
+{
+	@Label("Tick Duration")
+	@Timespan(Timespan.NANOSECONDS)
+	long tickDuration;
+}
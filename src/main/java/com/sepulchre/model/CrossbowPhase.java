@@ -0,0 +1,8 @@
+package com.sepulchre.model;
+
+public enum CrossbowPhase
+{
+	IDLE,
+	CHARGING,
+	FIRING
+}
@@ -4,6 +4,7 @@ import com.sepulchre.util.GameObjectUtil;
 import com.sepulchre.util.SepulchreConstants;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import net.runelite.api.GameObject;
 
 @Getter
@@ -12,8 +13,38 @@ public class CrossbowStatue
 {
 	private final GameObject gameObject;
 
+	/**
+	 * Packed tiles the statue's bolt crosses, from {@link com.sepulchre.util.LaneTables}.
+	 */
+	@Setter
+	private int[] laneTiles = new int[0];
+
+	/**
+	 * Animation state sampled once per game tick by {@link #sampleAnimation()}.
+	 */
+	private CrossbowPhase phase = CrossbowPhase.IDLE;
+
+	public void sampleAnimation()
+	{
+		int animationId = GameObjectUtil.getAnimationId(gameObject);
+		if (animationId == SepulchreConstants.CROSSBOW_ANIM_CHARGING)
+		{
+			phase = CrossbowPhase.CHARGING;
+		}
+		else if (animationId == SepulchreConstants.CROSSBOW_ANIM_FIRING_1
+			|| animationId == SepulchreConstants.CROSSBOW_ANIM_FIRING_2
+			|| animationId == SepulchreConstants.CROSSBOW_ANIM_FIRING_3)
+		{
+			phase = CrossbowPhase.FIRING;
+		}
+		else
+		{
+			phase = CrossbowPhase.IDLE;
+		}
+	}
+
 	public boolean isDangerous()
 	{
-		return SepulchreConstants.CROSSBOW_DANGER_ANIMS.contains(GameObjectUtil.getAnimationId(gameObject));
+		return phase != CrossbowPhase.IDLE;
 	}
 }
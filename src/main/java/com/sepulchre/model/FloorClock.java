@@ -0,0 +1,179 @@
+package com.sepulchre.model;
+
+/**
+ * The fire / safe / warning rhythm shared by the wizard statues on one floor.
+ * <p>
+ * The clock locks onto the first phase change seen on any statue: it starting to fire, to rest
+ * after firing or to warn after resting. Each of those fixes where in the cycle the statue is.
+ * Every statue seen changing phase after that is locked with a phase shift, its cycle start tick
+ * modulo the cycle, and from then on its phase and countdown are read off the clock instead of
+ * its animation. Statues on the same rhythm share a shift and so sync together.
+ */
+public class FloorClock
+{
+	private final int firePhaseTicks;
+	private final int safePhaseTicks;
+	private final int warningPhaseTicks;
+	private final int cycle;
+
+	private boolean locked;
+	private int anchorTick;
+	private int tick;
+
+	/**
+	 * Bit {@code p} is set when a locked shift changes phase on cycle position {@code p}, or does
+	 * so on the next tick, so ticks on which no locked statue is near a phase change can skip
+	 * them entirely.
+	 */
+	private int checkMask;
+
+	public FloorClock(int firePhaseTicks, int safePhaseTicks, int warningPhaseTicks)
+	{
+		this.firePhaseTicks = firePhaseTicks;
+		this.safePhaseTicks = safePhaseTicks;
+		this.warningPhaseTicks = warningPhaseTicks;
+		this.cycle = firePhaseTicks + safePhaseTicks + warningPhaseTicks;
+		if (cycle > Integer.SIZE)
+		{
+			throw new IllegalArgumentException("cycle too long: " + cycle);
+		}
+	}
+
+	public boolean isLocked()
+	{
+		return locked;
+	}
+
+	/**
+	 * The handler tick the clock was last advanced to.
+	 */
+	public int getTick()
+	{
+		return tick;
+	}
+
+	public void advance(int tick)
+	{
+		this.tick = tick;
+	}
+
+	public void reset()
+	{
+		locked = false;
+		checkMask = 0;
+	}
+
+	/**
+	 * Locks the clock if it is not yet, and registers a statue that entered {@code phase} on the
+	 * current tick.
+	 *
+	 * @return the statue's phase shift
+	 */
+	public int lockPhaseStart(WizardPhase phase)
+	{
+		int start = phaseStart(phase);
+		if (!locked)
+		{
+			locked = true;
+			anchorTick = tick - start;
+		}
+
+		int shift = Math.floorMod(tick - anchorTick - start, cycle);
+		markCheck(shift);
+		markCheck(shift + firePhaseTicks);
+		markCheck(shift + firePhaseTicks + safePhaseTicks);
+		return shift;
+	}
+
+	/**
+	 * @return true if a statue locked with any shift changes phase on the current or the next tick
+	 */
+	public boolean isCheckTick()
+	{
+		return locked && (checkMask & (1 << Math.floorMod(tick - anchorTick, cycle))) != 0;
+	}
+
+	public WizardPhase phaseAt(int tick, int shift)
+	{
+		int position = position(tick, shift);
+		if (position < firePhaseTicks)
+		{
+			return WizardPhase.FIRING;
+		}
+		return position < firePhaseTicks + safePhaseTicks ? WizardPhase.SAFE : WizardPhase.WARNING;
+	}
+
+	/**
+	 * @return ticks left in the phase at {@code tick}, counting that tick, as a statue's own
+	 * counter would show
+	 */
+	public int countdownAt(int tick, int shift)
+	{
+		int position = position(tick, shift);
+		if (position < firePhaseTicks)
+		{
+			return firePhaseTicks - position;
+		}
+		position -= firePhaseTicks;
+		if (position < safePhaseTicks)
+		{
+			return safePhaseTicks - position;
+		}
+		return warningPhaseTicks - (position - safePhaseTicks);
+	}
+
+	/**
+	 * @return true if a statue with {@code shift} starts firing on {@code tick}
+	 */
+	public boolean startsFiring(int tick, int shift)
+	{
+		return position(tick, shift) == 0;
+	}
+
+	/**
+	 * @return true if a statue with {@code shift} enters a new phase on {@code tick}
+	 */
+	public boolean changesPhase(int tick, int shift)
+	{
+		int position = position(tick, shift);
+		return position == 0 || position == firePhaseTicks || position == firePhaseTicks + safePhaseTicks;
+	}
+
+	/**
+	 * @return true if a statue with {@code shift} stops firing on {@code tick}
+	 */
+	public boolean stopsFiring(int tick, int shift)
+	{
+		return position(tick, shift) == firePhaseTicks;
+	}
+
+	/**
+	 * @return the cycle position, counted from the start of firing, on which {@code phase} starts
+	 */
+	private int phaseStart(WizardPhase phase)
+	{
+		switch (phase)
+		{
+			case FIRING:
+				return 0;
+			case SAFE:
+				return firePhaseTicks;
+			default:
+				return firePhaseTicks + safePhaseTicks;
+		}
+	}
+
+	/**
+	 * Marks a phase change at {@code position} and the tick before it.
+	 */
+	private void markCheck(int position)
+	{
+		checkMask |= 1 << Math.floorMod(position, cycle);
+		checkMask |= 1 << Math.floorMod(position - 1, cycle);
+	}
+
+	private int position(int tick, int shift)
+	{
+		return Math.floorMod(tick - anchorTick - shift, cycle);
+	}
+}
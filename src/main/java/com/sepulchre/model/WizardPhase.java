@@ -0,0 +1,8 @@
+package com.sepulchre.model;
+
+public enum WizardPhase
+{
+	SAFE,
+	WARNING,
+	FIRING
+}
@@ -7,14 +7,16 @@ import lombok.Setter;
 import net.runelite.api.GameObject;
 import net.runelite.api.coords.WorldPoint;
 
-import java.util.HashSet;
-import java.util.Set;
-
 @Getter
 public class WizardStatue
 {
 	private final GameObject gameObject;
-	private final Set<WorldPoint> fireTiles = new HashSet<>();
+
+	/**
+	 * Packed tiles covered by this statue's flame, from {@link com.sepulchre.util.LaneTables}.
+	 */
+	@Setter
+	private int[] fireTiles = new int[0];
 
 	@Setter
 	private boolean hasEverFired = false;
@@ -25,11 +27,28 @@ public class WizardStatue
 	@Setter
 	private int tickCounter = -1;
 
-	private boolean wasFiringLastTick = false;
-	private boolean wasWarningLastTick = false;
+	/**
+	 * Animation state sampled once per game tick in {@link #onGameTick()}, and on spawn so the
+	 * first tick is not taken for a phase change. Once the statue is locked to its floor's clock
+	 * this is only sampled to verify the clock.
+	 */
+	private WizardPhase sampledPhase = WizardPhase.SAFE;
+
+	/**
+	 * The floor clock this statue is locked to, or null while it is tracked from its own
+	 * animation.
+	 */
+	private FloorClock clock;
+	private int clockShift;
 
 	private static final int ACTIVATION_CHECK_TICKS = 10;
 
+	/**
+	 * Glyph index for an unsynced counter; 0-9 are the digits themselves.
+	 */
+	public static final int UNKNOWN_TICKS_GLYPH = 10;
+	private static final String[] DISPLAY_TICKS = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "?"};
+
 	@Setter
 	private int firePhaseTicks = 4;
 	@Setter
@@ -47,33 +66,97 @@ public class WizardStatue
 		return hasEverFired || ticksSinceSpawn < ACTIVATION_CHECK_TICKS;
 	}
 
-	private int getAnimationId()
+	public void sampleAnimation()
+	{
+		int animId = GameObjectUtil.getAnimationId(gameObject);
+		if (animId == SepulchreConstants.WIZARD_ANIM_FIRE)
+		{
+			sampledPhase = WizardPhase.FIRING;
+		}
+		else if (animId == SepulchreConstants.WIZARD_ANIM_WARNING || animId == SepulchreConstants.WIZARD_ANIM_PRE_WARNING)
+		{
+			sampledPhase = WizardPhase.WARNING;
+		}
+		else
+		{
+			sampledPhase = WizardPhase.SAFE;
+		}
+	}
+
+	public WizardPhase getPhase()
 	{
-		return GameObjectUtil.getAnimationId(gameObject);
+		return clock != null ? clock.phaseAt(clock.getTick(), clockShift) : sampledPhase;
+	}
+
+	public int getTickCounter()
+	{
+		return clock != null ? clock.countdownAt(clock.getTick(), clockShift) : tickCounter;
 	}
 
 	public boolean isFiring()
 	{
-		return getAnimationId() == SepulchreConstants.WIZARD_ANIM_FIRE;
+		return getPhase() == WizardPhase.FIRING;
 	}
 
 	public boolean isWarning()
 	{
-		int animId = getAnimationId();
-		return animId == SepulchreConstants.WIZARD_ANIM_WARNING || animId == SepulchreConstants.WIZARD_ANIM_PRE_WARNING;
+		return getPhase() == WizardPhase.WARNING;
 	}
 
 	public boolean isSafe()
 	{
-		int animId = getAnimationId();
-		return animId != SepulchreConstants.WIZARD_ANIM_FIRE
-			&& animId != SepulchreConstants.WIZARD_ANIM_WARNING
-			&& animId != SepulchreConstants.WIZARD_ANIM_PRE_WARNING;
+		return getPhase() == WizardPhase.SAFE;
 	}
 
-	public void addFireTile(WorldPoint tile)
+	public boolean isLocked()
 	{
-		fireTiles.add(tile);
+		return clock != null;
+	}
+
+	/**
+	 * Hands the statue's phase and counter over to {@code clock}. Called on the tick the statue is
+	 * seen entering {@code phase} from the one before it in the cycle; only a statue that fires
+	 * goes through its cycle, so it counts as having fired.
+	 */
+	public void lockTo(FloorClock clock, WizardPhase phase)
+	{
+		this.clock = clock;
+		this.clockShift = clock.lockPhaseStart(phase);
+		hasEverFired = true;
+	}
+
+	/**
+	 * Goes back to tracking the statue from its animation, unsynced until it next changes phase.
+	 */
+	public void unlock()
+	{
+		clock = null;
+		tickCounter = -1;
+	}
+
+	/**
+	 * @return true if the last sampled animation agrees with the clock
+	 */
+	public boolean matchesClock()
+	{
+		return clock == null || sampledPhase == clock.phaseAt(clock.getTick(), clockShift);
+	}
+
+	/**
+	 * @return true if this locked statue changes phase on the clock's current tick or the next,
+	 * the ticks on which an animation running early or late first disagrees with the clock
+	 */
+	public boolean isClockCheckTick()
+	{
+		return clock != null && (clock.changesPhase(clock.getTick(), clockShift) || clock.changesPhase(clock.getTick() + 1, clockShift));
+	}
+
+	/**
+	 * @return true if this locked statue starts or stops firing on the clock's current tick
+	 */
+	public boolean isFiringTransition()
+	{
+		return clock != null && (clock.startsFiring(clock.getTick(), clockShift) || clock.stopsFiring(clock.getTick(), clockShift));
 	}
 
 	public WorldPoint getLocation()
@@ -83,19 +166,19 @@ public class WizardStatue
 
 	public void onGameTick()
 	{
-		boolean currentlyFiring = isFiring();
-		boolean currentlyWarning = isWarning();
+		WizardPhase previous = sampledPhase;
+		sampleAnimation();
 
-		if (currentlyFiring && !wasFiringLastTick)
+		if (sampledPhase == WizardPhase.FIRING && previous != WizardPhase.FIRING)
 		{
 			tickCounter = firePhaseTicks;
 			hasEverFired = true;
 		}
-		else if (currentlyWarning && !wasWarningLastTick && !currentlyFiring)
+		else if (sampledPhase == WizardPhase.WARNING && previous != WizardPhase.WARNING)
 		{
 			tickCounter = warningPhaseTicks;
 		}
-		else if (!currentlyFiring && wasFiringLastTick)
+		else if (sampledPhase != WizardPhase.FIRING && previous == WizardPhase.FIRING)
 		{
 			tickCounter = safePhaseTicks;
 		}
@@ -104,22 +187,30 @@ public class WizardStatue
 			tickCounter--;
 		}
 
-		wasFiringLastTick = currentlyFiring;
-		wasWarningLastTick = currentlyWarning;
 		ticksSinceSpawn++;
 	}
 
 	public String getDisplayTicks()
 	{
-		if (tickCounter < 0)
+		return DISPLAY_TICKS[getDisplayTicksGlyph()];
+	}
+
+	/**
+	 * @return the counter digit, or {@link #UNKNOWN_TICKS_GLYPH} when unsynced. Counters never
+	 * exceed the longest phase, so a single digit always suffices.
+	 */
+	public int getDisplayTicksGlyph()
+	{
+		int ticks = getTickCounter();
+		if (ticks < 0)
 		{
-			return "?";
+			return UNKNOWN_TICKS_GLYPH;
 		}
-		return String.valueOf(tickCounter);
+		return Math.min(ticks, 9);
 	}
 
 	public boolean isSynced()
 	{
-		return tickCounter >= 0;
+		return getTickCounter() >= 0;
 	}
 }
@@ -0,0 +1,68 @@
+package com.sepulchre.overlay;
+
+import lombok.Getter;
+import net.runelite.api.Client;
+
+/**
+ * Everything that decides where a scene tile lands on the canvas. {@link #update(Client)} is
+ * called once per frame and bumps {@link #getGeneration()} whenever any of it changed, so caches
+ * of projected geometry can be keyed on a single int.
+ */
+public class CameraFingerprint
+{
+	private int cameraX;
+	private int cameraY;
+	private int cameraZ;
+	private int cameraPitch;
+	private int cameraYaw;
+	private int scale;
+	private int viewportWidth;
+	private int viewportHeight;
+	private int baseX;
+	private int baseY;
+	private int plane;
+
+	@Getter
+	private int generation;
+
+	/**
+	 * @return true if the camera moved since the previous call
+	 */
+	public boolean update(Client client)
+	{
+		int cameraX = client.getCameraX();
+		int cameraY = client.getCameraY();
+		int cameraZ = client.getCameraZ();
+		int cameraPitch = client.getCameraPitch();
+		int cameraYaw = client.getCameraYaw();
+		int scale = client.getScale();
+		int viewportWidth = client.getViewportWidth();
+		int viewportHeight = client.getViewportHeight();
+		int baseX = client.getBaseX();
+		int baseY = client.getBaseY();
+		int plane = client.getPlane();
+
+		if (cameraX == this.cameraX && cameraY == this.cameraY && cameraZ == this.cameraZ
+			&& cameraPitch == this.cameraPitch && cameraYaw == this.cameraYaw && scale == this.scale
+			&& viewportWidth == this.viewportWidth && viewportHeight == this.viewportHeight
+			&& baseX == this.baseX && baseY == this.baseY && plane == this.plane
+			&& generation != 0)
+		{
+			return false;
+		}
+
+		this.cameraX = cameraX;
+		this.cameraY = cameraY;
+		this.cameraZ = cameraZ;
+		this.cameraPitch = cameraPitch;
+		this.cameraYaw = cameraYaw;
+		this.scale = scale;
+		this.viewportWidth = viewportWidth;
+		this.viewportHeight = viewportHeight;
+		this.baseX = baseX;
+		this.baseY = baseY;
+		this.plane = plane;
+		generation++;
+		return true;
+	}
+}
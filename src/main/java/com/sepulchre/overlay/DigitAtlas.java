@@ -0,0 +1,97 @@
+package com.sepulchre.overlay;
+
+import lombok.Getter;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pre-rendered counter glyphs ("0"-"9" and "?") per text color, drawn the same way as
+ * {@link net.runelite.client.ui.overlay.OverlayUtil#renderTextLocation}: a black shadow one pixel
+ * down and right, then the text. Drawing a counter is then a single image blit.
+ * The atlas is rebuilt if the overlay font changes, and should be cleared when the colors in use
+ * change so sets for colors no longer drawn do not pile up.
+ */
+public class DigitAtlas
+{
+	private static final String GLYPHS = "0123456789?";
+
+	private Font font;
+
+	/**
+	 * Distance from the top of a glyph image to the text baseline.
+	 */
+	@Getter
+	private int ascent;
+
+	private final List<Color> colors = new ArrayList<>();
+	private final List<BufferedImage[]> glyphs = new ArrayList<>();
+
+	/**
+	 * @param glyph 0-9 for a digit, 10 for "?"
+	 */
+	public BufferedImage get(Graphics2D graphics, Color color, int glyph)
+	{
+		Font currentFont = graphics.getFont();
+		if (!currentFont.equals(font))
+		{
+			font = currentFont;
+			ascent = graphics.getFontMetrics().getAscent();
+			colors.clear();
+			glyphs.clear();
+		}
+
+		for (int i = 0; i < colors.size(); i++)
+		{
+			if (colors.get(i).equals(color))
+			{
+				return glyphs.get(i)[glyph];
+			}
+		}
+
+		BufferedImage[] rendered = render(graphics, color);
+		colors.add(color);
+		glyphs.add(rendered);
+		return rendered[glyph];
+	}
+
+	public void clear()
+	{
+		colors.clear();
+		glyphs.clear();
+	}
+
+	private BufferedImage[] render(Graphics2D graphics, Color color)
+	{
+		FontMetrics metrics = graphics.getFontMetrics();
+		int height = metrics.getAscent() + metrics.getDescent() + 1;
+
+		BufferedImage[] rendered = new BufferedImage[GLYPHS.length()];
+		for (int i = 0; i < rendered.length; i++)
+		{
+			String text = GLYPHS.substring(i, i + 1);
+			BufferedImage image = new BufferedImage(metrics.stringWidth(text) + 1, height, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D imageGraphics = image.createGraphics();
+			try
+			{
+				imageGraphics.setRenderingHints(graphics.getRenderingHints());
+				imageGraphics.setFont(font);
+				imageGraphics.setColor(Color.BLACK);
+				imageGraphics.drawString(text, 1, ascent + 1);
+				imageGraphics.setColor(color);
+				imageGraphics.drawString(text, 0, ascent);
+			}
+			finally
+			{
+				imageGraphics.dispose();
+			}
+			rendered[i] = image;
+		}
+		return rendered;
+	}
+}
@@ -0,0 +1,94 @@
+package com.sepulchre.overlay;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Recorded draw operations for the parts of the scene overlay that only change with hazard
+ * state: batched tile shapes and pre-rendered label images. The recording is tagged with the inputs it was
+ * built from and replayed as-is while they stay the same.
+ */
+public class DisplayList
+{
+	private final ShapeBatch shapes = new ShapeBatch();
+
+	private int[] labelXs = new int[16];
+	private int[] labelYs = new int[16];
+	private BufferedImage[] labelImages = new BufferedImage[16];
+	private int labelCount;
+
+	private boolean recorded;
+	private int handlerGeneration;
+	private int cameraGeneration;
+	private Object settings;
+	private int plane;
+
+	public boolean isCurrent(int handlerGeneration, int cameraGeneration, Object settings, int plane)
+	{
+		return recorded
+			&& this.handlerGeneration == handlerGeneration
+			&& this.cameraGeneration == cameraGeneration
+			&& this.settings == settings
+			&& this.plane == plane;
+	}
+
+	/**
+	 * Clears the recording and tags the one about to be made.
+	 */
+	public void begin(int handlerGeneration, int cameraGeneration, Object settings, int plane)
+	{
+		shapes.reset();
+		Arrays.fill(labelImages, 0, labelCount, null);
+		labelCount = 0;
+
+		this.recorded = true;
+		this.handlerGeneration = handlerGeneration;
+		this.cameraGeneration = cameraGeneration;
+		this.settings = settings;
+		this.plane = plane;
+	}
+
+	public ShapeBatch getShapes()
+	{
+		return shapes;
+	}
+
+	/**
+	 * @param x canvas x of the image's top left corner
+	 * @param y canvas y of the image's top left corner
+	 */
+	public void addLabel(int x, int y, BufferedImage image)
+	{
+		if (labelCount == labelImages.length)
+		{
+			labelXs = Arrays.copyOf(labelXs, labelCount << 1);
+			labelYs = Arrays.copyOf(labelYs, labelCount << 1);
+			labelImages = Arrays.copyOf(labelImages, labelCount << 1);
+		}
+		labelXs[labelCount] = x;
+		labelYs[labelCount] = y;
+		labelImages[labelCount] = image;
+		labelCount++;
+	}
+
+	/**
+	 * @return the number of draw and fill calls issued
+	 */
+	public int replayShapes(Graphics2D graphics)
+	{
+		return shapes.draw(graphics);
+	}
+
+	/**
+	 * @return the number of image blits issued
+	 */
+	public int replayLabels(Graphics2D graphics)
+	{
+		for (int i = 0; i < labelCount; i++)
+		{
+			graphics.drawImage(labelImages[i], labelXs[i], labelYs[i], null);
+		}
+		return labelCount;
+	}
+}
@@ -0,0 +1,69 @@
+package com.sepulchre.overlay;
+
+import com.sepulchre.SepulchrePlugin;
+import com.sepulchre.metrics.HotPathMetrics;
+import com.sepulchre.metrics.LatencyHistogram;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+import javax.inject.Inject;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+
+/**
+ * Developer panel listing p50 / p99 / max microseconds for each timed hot path and the running
+ * counters from {@link HotPathMetrics}.
+ */
+public class MetricsOverlay extends OverlayPanel
+{
+	private static final HotPathMetrics.Timer[] TIMERS = HotPathMetrics.Timer.values();
+	private static final HotPathMetrics.Counter[] COUNTERS = HotPathMetrics.Counter.values();
+
+	private final HotPathMetrics metrics;
+
+	@Inject
+	public MetricsOverlay(SepulchrePlugin plugin, HotPathMetrics metrics)
+	{
+		super(plugin);
+		this.metrics = metrics;
+
+		setPosition(OverlayPosition.TOP_LEFT);
+		panelComponent.setPreferredSize(new Dimension(240, 0));
+	}
+
+	@Override
+	public Dimension render(Graphics2D graphics)
+	{
+		panelComponent.getChildren().add(TitleComponent.builder()
+			.text("Sepulchre p50 / p99 / max us")
+			.build());
+
+		for (HotPathMetrics.Timer timer : TIMERS)
+		{
+			LatencyHistogram histogram = metrics.getHistogram(timer);
+			if (histogram.getCount() == 0)
+			{
+				continue;
+			}
+
+			panelComponent.getChildren().add(LineComponent.builder()
+				.left(timer.getLabel())
+				.right(HotPathMetrics.micros(histogram.getPercentileNanos(0.5))
+					+ " / " + HotPathMetrics.micros(histogram.getPercentileNanos(0.99))
+					+ " / " + HotPathMetrics.micros(histogram.getMaxNanos()))
+				.build());
+		}
+
+		for (HotPathMetrics.Counter counter : COUNTERS)
+		{
+			panelComponent.getChildren().add(LineComponent.builder()
+				.left(counter.getLabel())
+				.right(Long.toString(metrics.getCount(counter)))
+				.build());
+		}
+
+		return super.render(graphics);
+	}
+}
@@ -0,0 +1,148 @@
+package com.sepulchre.overlay;
+
+import com.sepulchre.config.HighlightStyle;
+import com.sepulchre.metrics.HotPathMetrics;
+import com.sepulchre.util.GameObjectUtil;
+import net.runelite.api.Client;
+import net.runelite.api.GameObject;
+import net.runelite.api.Perspective;
+import net.runelite.api.coords.LocalPoint;
+
+import java.awt.Polygon;
+import java.awt.Shape;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Canvas shapes of static game objects, keyed on object identity and reused until the camera
+ * fingerprint, the object's animation and frame or the highlight style changes.
+ * Entries are dropped when their object despawns and cleared when the scene reloads, so the cache
+ * never keeps a despawned object or its model alive.
+ * Convex hulls are reduced to at most {@link #MAX_HULL_VERTICES} points before they are cached.
+ */
+public class ObjectShapeCache
+{
+	private static final int MAX_HULL_VERTICES = 16;
+	private static final int MAX_ENTRIES = 256;
+
+	private static final class Entry
+	{
+		private int cameraGeneration = -1;
+		private int animationId;
+		private int animationFrame;
+		private HighlightStyle style;
+		private Shape shape;
+	}
+
+	private final HotPathMetrics metrics;
+	private final Map<GameObject, Entry> entries = new IdentityHashMap<>();
+
+	public ObjectShapeCache(HotPathMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
+
+	public Shape get(Client client, GameObject gameObject, LocalPoint localPoint, HighlightStyle style, int cameraGeneration)
+	{
+		Entry entry = entries.get(gameObject);
+		if (entry == null)
+		{
+			if (entries.size() >= MAX_ENTRIES)
+			{
+				entries.clear();
+			}
+			entry = new Entry();
+			entries.put(gameObject, entry);
+		}
+
+		// an animation switch can land on the same frame index, so the frame alone is not enough
+		int animationId = style == HighlightStyle.TILE ? -1 : GameObjectUtil.getAnimationId(gameObject);
+		int animationFrame = style == HighlightStyle.TILE ? 0 : GameObjectUtil.getAnimationFrame(gameObject);
+		if (entry.cameraGeneration != cameraGeneration || entry.animationId != animationId
+			|| entry.animationFrame != animationFrame || entry.style != style)
+		{
+			entry.cameraGeneration = cameraGeneration;
+			entry.animationId = animationId;
+			entry.animationFrame = animationFrame;
+			entry.style = style;
+			entry.shape = project(client, gameObject, localPoint, style);
+			metrics.increment(HotPathMetrics.Counter.SHAPE_CACHE_MISSES);
+			metrics.increment(HotPathMetrics.Counter.PROJECTIONS);
+		}
+		else
+		{
+			metrics.increment(HotPathMetrics.Counter.SHAPE_CACHE_HITS);
+		}
+		return entry.shape;
+	}
+
+	public void remove(GameObject gameObject)
+	{
+		entries.remove(gameObject);
+	}
+
+	public void clear()
+	{
+		entries.clear();
+	}
+
+	private static Shape project(Client client, GameObject gameObject, LocalPoint localPoint, HighlightStyle style)
+	{
+		switch (style)
+		{
+			case CLICKBOX:
+				return gameObject.getClickbox();
+			case HULL:
+				Shape hull = gameObject.getConvexHull();
+				if (hull instanceof Polygon)
+				{
+					return simplify((Polygon) hull, MAX_HULL_VERTICES);
+				}
+				return hull;
+			case TILE:
+				return Perspective.getCanvasTilePoly(client, localPoint);
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Visvalingam-Whyatt reduction: repeatedly drops the vertex spanning the smallest triangle
+	 * with its neighbours until at most {@code maxVertices} remain.
+	 */
+	static Polygon simplify(Polygon polygon, int maxVertices)
+	{
+		int count = polygon.npoints;
+		if (count <= maxVertices)
+		{
+			return polygon;
+		}
+
+		int[] xs = Arrays.copyOf(polygon.xpoints, count);
+		int[] ys = Arrays.copyOf(polygon.ypoints, count);
+
+		while (count > maxVertices)
+		{
+			int smallest = 0;
+			long smallestArea = Long.MAX_VALUE;
+			for (int i = 0; i < count; i++)
+			{
+				int prev = i == 0 ? count - 1 : i - 1;
+				int next = i == count - 1 ? 0 : i + 1;
+				long area = Math.abs((long) (xs[prev] - xs[i]) * (ys[next] - ys[i]) - (long) (xs[next] - xs[i]) * (ys[prev] - ys[i]));
+				if (area < smallestArea)
+				{
+					smallestArea = area;
+					smallest = i;
+				}
+			}
+
+			System.arraycopy(xs, smallest + 1, xs, smallest, count - smallest - 1);
+			System.arraycopy(ys, smallest + 1, ys, smallest, count - smallest - 1);
+			count--;
+		}
+
+		return new Polygon(xs, ys, count);
+	}
+}
@@ -3,58 +3,85 @@ package com.sepulchre.overlay;
 import com.sepulchre.SepulchrePlugin;
 import com.sepulchre.config.HighlightStyle;
 import com.sepulchre.config.SepulchreConfig;
+import com.sepulchre.config.SepulchreRenderSettings;
 import com.sepulchre.handler.ObstacleHandler;
+import com.sepulchre.metrics.HotPathMetrics;
+import com.sepulchre.metrics.SlowPathMonitor;
+import com.sepulchre.model.CrossbowPhase;
 import com.sepulchre.model.CrossbowStatue;
-import com.sepulchre.model.LightningStrike;
 import com.sepulchre.model.WizardStatue;
+import com.sepulchre.path.SafePathPlanner;
+import com.sepulchre.util.GameObjectRegistry;
+import com.sepulchre.util.IntHashSet;
+import com.sepulchre.util.IntIntHashMap;
+import com.sepulchre.util.ProjectileTracker;
+import com.sepulchre.util.TileKey;
+import lombok.Getter;
 import net.runelite.api.Client;
+import net.runelite.api.GameObject;
 import net.runelite.api.NPC;
 import net.runelite.api.NPCComposition;
 import net.runelite.api.Perspective;
 import net.runelite.api.Point;
 import net.runelite.api.coords.LocalPoint;
-import net.runelite.api.coords.WorldPoint;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
-import net.runelite.client.ui.overlay.OverlayUtil;
 
 import javax.inject.Inject;
-import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Polygon;
 import java.awt.Shape;
 import java.awt.Stroke;
+import java.awt.image.BufferedImage;
 
 public class SepulchreSceneOverlay extends Overlay
 {
-	private static final Stroke DEFAULT_STROKE = new BasicStroke(1);
-
 	private final Client client;
 	private final SepulchrePlugin plugin;
 	private final SepulchreConfig config;
 	private final ObstacleHandler obstacleHandler;
-
-	private Stroke cachedFireStroke;
-	private int cachedFireStrokeWidth = -1;
-
-	private Stroke cachedProjectileStroke;
-	private int cachedProjectileStrokeWidth = -1;
-
-	private Color cachedFireBorderColor;
-	private int cachedFireBorderOpacity = -1;
-	private Color cachedFireBaseColor;
+	private final HotPathMetrics metrics;
+	private final SlowPathMonitor slowPathMonitor;
+	private final SafePathPlanner safePathPlanner;
+
+	private volatile SepulchreRenderSettings settings;
+
+	/**
+	 * The settings the digit atlas was filled under; its glyph colors come from them.
+	 */
+	private SepulchreRenderSettings glyphSettings;
+
+	private final CameraFingerprint cameraFingerprint = new CameraFingerprint();
+	private final TilePolygonCache tilePolygonCache;
+	private final ViewCuller viewCuller = new ViewCuller();
+	private final ObjectShapeCache objectShapeCache;
+	private final DigitAtlas digitAtlas = new DigitAtlas();
+	private final DisplayList displayList = new DisplayList();
+	private final ShapeBatch dynamicBatch = new ShapeBatch();
+
+	/**
+	 * Graphics2D draw, fill and text calls issued by the last frame.
+	 */
+	@Getter
+	private int drawCallsLastFrame;
 
 	@Inject
-	public SepulchreSceneOverlay(Client client, SepulchrePlugin plugin, SepulchreConfig config, ObstacleHandler obstacleHandler)
+	public SepulchreSceneOverlay(Client client, SepulchrePlugin plugin, SepulchreConfig config, ObstacleHandler obstacleHandler, HotPathMetrics metrics, SlowPathMonitor slowPathMonitor, SafePathPlanner safePathPlanner)
 	{
 		this.client = client;
 		this.plugin = plugin;
 		this.config = config;
 		this.obstacleHandler = obstacleHandler;
+		this.metrics = metrics;
+		this.slowPathMonitor = slowPathMonitor;
+		this.safePathPlanner = safePathPlanner;
+		this.tilePolygonCache = new TilePolygonCache(metrics);
+		this.objectShapeCache = new ObjectShapeCache(metrics);
+		this.settings = SepulchreRenderSettings.from(config);
 
 		setPosition(OverlayPosition.DYNAMIC);
 		setLayer(OverlayLayer.ABOVE_SCENE);
@@ -69,282 +96,356 @@ public class SepulchreSceneOverlay extends Overlay
 			return null;
 		}
 
+		long frameStart = System.nanoTime();
+		SepulchreRenderSettings settings = this.settings;
 		int playerPlane = client.getPlane();
 
-		renderLightning(graphics, playerPlane);
-		renderCrossbowStatues(graphics, playerPlane);
-		renderWizardStatues(graphics, playerPlane);
-		renderBoltNpcs(graphics, playerPlane);
-		renderSwordNpcs(graphics, playerPlane);
-		renderPortals(graphics, playerPlane);
+		if (settings != glyphSettings)
+		{
+			digitAtlas.clear();
+			glyphSettings = settings;
+		}
 
-		return null;
-	}
+		if (cameraFingerprint.update(client))
+		{
+			tilePolygonCache.clear();
+		}
+		viewCuller.update(client, playerPlane);
 
-	private Stroke getFireBorderStroke()
-	{
-		int width = Math.max(1, Math.min(5, config.fireBorderWidth()));
-		if (width != cachedFireStrokeWidth)
+		// Lightning, wizard fire and portals only change with handler state; re-record them
+		// when that, the camera or the settings move and otherwise replay the last recording.
+		int handlerGeneration = obstacleHandler.getGeneration();
+		int cameraGeneration = cameraFingerprint.getGeneration();
+		if (!displayList.isCurrent(handlerGeneration, cameraGeneration, settings, playerPlane))
 		{
-			cachedFireStrokeWidth = width;
-			cachedFireStroke = new BasicStroke(width);
+			displayList.begin(handlerGeneration, cameraGeneration, settings, playerPlane);
+			metrics.increment(HotPathMetrics.Counter.DISPLAY_LIST_RECORDS);
+			ShapeBatch shapes = displayList.getShapes();
+			long start = System.nanoTime();
+			renderLightning(shapes, settings, playerPlane);
+			metrics.record(HotPathMetrics.Timer.RENDER_LIGHTNING, start);
+			start = System.nanoTime();
+			renderWizardStatues(shapes, settings, playerPlane);
+			metrics.record(HotPathMetrics.Timer.RENDER_WIZARDS, start);
+			start = System.nanoTime();
+			renderPortals(shapes, settings, playerPlane);
+			metrics.record(HotPathMetrics.Timer.RENDER_PORTALS, start);
+			start = System.nanoTime();
+			renderProjectileLanes(shapes, settings, playerPlane);
+			metrics.record(HotPathMetrics.Timer.RENDER_PROJECTILE_LANES, start);
+			start = System.nanoTime();
+			renderCrossbowLanes(shapes, settings, playerPlane);
+			metrics.record(HotPathMetrics.Timer.RENDER_CROSSBOW_LANES, start);
+			start = System.nanoTime();
+			renderSafePath(shapes, settings);
+			metrics.record(HotPathMetrics.Timer.RENDER_SAFE_PATH, start);
+			start = System.nanoTime();
+			recordWizardTickCounters(graphics, settings, playerPlane);
+			metrics.record(HotPathMetrics.Timer.RENDER_TICK_COUNTERS, start);
 		}
-		return cachedFireStroke;
+		else
+		{
+			metrics.increment(HotPathMetrics.Counter.DISPLAY_LIST_REPLAYS);
+		}
+
+		// Crossbow animations and projectile NPCs move between ticks and are drawn live.
+		long start = System.nanoTime();
+		renderCrossbowStatues(dynamicBatch, settings, playerPlane);
+		metrics.record(HotPathMetrics.Timer.RENDER_CROSSBOWS, start);
+		start = System.nanoTime();
+		renderBoltNpcs(dynamicBatch, settings, playerPlane);
+		metrics.record(HotPathMetrics.Timer.RENDER_BOLTS, start);
+		start = System.nanoTime();
+		renderSwordNpcs(dynamicBatch, settings, playerPlane);
+		metrics.record(HotPathMetrics.Timer.RENDER_SWORDS, start);
+
+		int drawCalls = displayList.replayShapes(graphics);
+		drawCalls += dynamicBatch.flush(graphics);
+		drawCalls += displayList.replayLabels(graphics);
+		drawCallsLastFrame = drawCalls;
+		metrics.add(HotPathMetrics.Counter.DRAW_CALLS, drawCalls);
+		metrics.record(HotPathMetrics.Timer.RENDER_FRAME, frameStart);
+		slowPathMonitor.onFrame(frameStart, System.nanoTime(), drawCalls);
+
+		return null;
 	}
 
-	private Stroke getProjectileBorderStroke()
+	/**
+	 * Rebuilds the render settings snapshot; called when the sepulchre config group changes.
+	 */
+	public void refreshSettings()
 	{
-		int width = Math.max(1, Math.min(5, config.projectileBorderWidth()));
-		if (width != cachedProjectileStrokeWidth)
-		{
-			cachedProjectileStrokeWidth = width;
-			cachedProjectileStroke = new BasicStroke(width);
-		}
-		return cachedProjectileStroke;
+		settings = SepulchreRenderSettings.from(config);
 	}
 
-	private Color getFireBorderColor(Color baseColor)
+	/**
+	 * Drops the cached shape of a despawned object.
+	 */
+	public void onGameObjectDespawned(GameObject gameObject)
 	{
-		int borderOpacity = Math.max(0, Math.min(255, config.fireBorderOpacity()));
-		if (borderOpacity != cachedFireBorderOpacity || baseColor != cachedFireBaseColor)
-		{
-			cachedFireBorderOpacity = borderOpacity;
-			cachedFireBaseColor = baseColor;
-			cachedFireBorderColor = new Color(baseColor.getRed(), baseColor.getGreen(), baseColor.getBlue(), borderOpacity);
-		}
-		return cachedFireBorderColor;
+		objectShapeCache.remove(gameObject);
 	}
 
-	private void renderTilePolygon(Graphics2D graphics, Polygon poly, Color fillColor, Color borderColor, Stroke stroke)
+	/**
+	 * Drops every cached object shape; called when the scene reloads or the plugin resets.
+	 */
+	public void clearObjectShapes()
 	{
-		graphics.setStroke(stroke);
-		graphics.setColor(borderColor);
-		graphics.draw(poly);
-		graphics.setColor(fillColor);
-		graphics.fill(poly);
+		objectShapeCache.clear();
 	}
 
-	private Polygon getTilePolygon(WorldPoint worldPoint, int playerPlane)
+	/**
+	 * @param tile packed tile on the player's plane
+	 */
+	private Polygon getTilePolygon(int tile)
 	{
-		if (worldPoint.getPlane() != playerPlane)
+		if (!viewCuller.isVisible(tile))
 		{
 			return null;
 		}
 
-		LocalPoint localPoint = LocalPoint.fromWorld(client, worldPoint);
-		if (localPoint == null)
+		return tilePolygonCache.get(client, tile);
+	}
+
+	private LocalPoint getVisibleLocation(LocalPoint localPoint)
+	{
+		if (localPoint == null || !viewCuller.isVisible(localPoint.getX(), localPoint.getY()))
 		{
 			return null;
 		}
-
-		return Perspective.getCanvasTilePoly(client, localPoint);
+		return localPoint;
 	}
 
-	private void renderLightning(Graphics2D graphics, int playerPlane)
+	private void renderLightning(ShapeBatch shapes, SepulchreRenderSettings settings, int playerPlane)
 	{
-		if (!config.highlightLightning())
+		if (!settings.isHighlightLightning())
 		{
 			return;
 		}
 
-		Color fillColor = config.lightningFillColor();
-		Color borderColor = config.lightningBorderColor();
+		Color fillColor = settings.getLightningFillColor();
+		Color borderColor = settings.getLightningBorderColor();
 
-		for (LightningStrike lightning : obstacleHandler.getActiveLightning())
+		IntIntHashMap activeLightning = obstacleHandler.getActiveLightning(playerPlane);
+		for (int i = 0; i < activeLightning.size(); i++)
 		{
-			Polygon poly = getTilePolygon(lightning.getLocation(), playerPlane);
+			Polygon poly = getTilePolygon(activeLightning.keyAt(i));
 			if (poly != null)
 			{
-				renderTilePolygon(graphics, poly, fillColor, borderColor, DEFAULT_STROKE);
+				shapes.add(poly, fillColor, borderColor, SepulchreRenderSettings.DEFAULT_STROKE);
 			}
 		}
 	}
 
-	private void renderCrossbowStatues(Graphics2D graphics, int playerPlane)
+	private void renderCrossbowStatues(ShapeBatch shapes, SepulchreRenderSettings settings, int playerPlane)
 	{
-		if (!config.highlightCrossbows())
+		if (!settings.isHighlightCrossbows())
 		{
 			return;
 		}
 
-		Color color = config.crossbowColor();
-		Color borderColor = new Color(color.getRed(), color.getGreen(), color.getBlue(), 255);
-		HighlightStyle style = config.crossbowHighlightStyle();
+		Color color = settings.getCrossbowColor();
+		Color borderColor = settings.getCrossbowBorderColor();
+		HighlightStyle style = settings.getCrossbowHighlightStyle();
 
-		for (CrossbowStatue statue : obstacleHandler.getCrossbowStatues())
+		GameObjectRegistry<CrossbowStatue> crossbowStatues = obstacleHandler.getCrossbowStatues(playerPlane);
+		for (int i = 0; i < crossbowStatues.size(); i++)
 		{
-			WorldPoint statueLocation = statue.getGameObject().getWorldLocation();
-			if (statueLocation.getPlane() != playerPlane)
+			CrossbowStatue statue = crossbowStatues.get(i);
+			if (!statue.isDangerous())
 			{
 				continue;
 			}
 
-			if (!statue.isDangerous())
+			LocalPoint localPoint = getVisibleLocation(statue.getGameObject().getLocalLocation());
+			if (localPoint == null)
 			{
 				continue;
 			}
 
-			renderGameObject(graphics, statue.getGameObject(), color, borderColor, style);
+			renderGameObject(shapes, statue.getGameObject(), localPoint, color, borderColor, style);
 		}
 	}
 
-	private void renderGameObject(Graphics2D graphics, net.runelite.api.GameObject gameObject, Color fillColor, Color borderColor, HighlightStyle style)
+	/**
+	 * Crossbow phases are sampled on the game tick, so their lanes are recorded into the display
+	 * list; the statue models themselves animate between ticks and are drawn live.
+	 */
+	private void renderCrossbowLanes(ShapeBatch shapes, SepulchreRenderSettings settings, int playerPlane)
 	{
-		Shape shape = null;
+		if (!settings.isHighlightCrossbows() || !settings.isShowCrossbowLanes())
+		{
+			return;
+		}
 
-		switch (style)
+		GameObjectRegistry<CrossbowStatue> crossbowStatues = obstacleHandler.getCrossbowStatues(playerPlane);
+		for (int i = 0; i < crossbowStatues.size(); i++)
 		{
-			case CLICKBOX:
-				shape = gameObject.getClickbox();
-				break;
-			case HULL:
-				shape = gameObject.getConvexHull();
-				break;
-			case TILE:
-				LocalPoint localPoint = gameObject.getLocalLocation();
-				if (localPoint != null)
+			CrossbowStatue statue = crossbowStatues.get(i);
+			if (!statue.isDangerous())
+			{
+				continue;
+			}
+
+			boolean charging = statue.getPhase() == CrossbowPhase.CHARGING;
+			Color color = charging ? settings.getCrossbowChargingColor() : settings.getCrossbowColor();
+			Color borderColor = charging ? settings.getCrossbowChargingBorderColor() : settings.getCrossbowBorderColor();
+
+			int[] laneTiles = statue.getLaneTiles();
+			for (int j = 0; j < laneTiles.length; j++)
+			{
+				Polygon poly = getTilePolygon(laneTiles[j]);
+				if (poly != null)
 				{
-					shape = Perspective.getCanvasTilePoly(client, localPoint);
+					shapes.add(poly, color, borderColor, SepulchreRenderSettings.DEFAULT_STROKE);
 				}
-				break;
+			}
 		}
+	}
 
+	private void renderGameObject(ShapeBatch shapes, GameObject gameObject, LocalPoint localPoint, Color fillColor, Color borderColor, HighlightStyle style)
+	{
+		Shape shape = objectShapeCache.get(client, gameObject, localPoint, style, cameraFingerprint.getGeneration());
 		if (shape == null)
 		{
 			return;
 		}
 
-		graphics.setStroke(DEFAULT_STROKE);
-		graphics.setColor(borderColor);
-		graphics.draw(shape);
-		graphics.setColor(fillColor);
-		graphics.fill(shape);
+		shapes.add(shape, fillColor, borderColor, SepulchreRenderSettings.DEFAULT_STROKE);
 	}
 
-	private void renderWizardStatues(Graphics2D graphics, int playerPlane)
+	private void renderWizardStatues(ShapeBatch shapes, SepulchreRenderSettings settings, int playerPlane)
 	{
-		if (!config.highlightWizards() && !config.wizardTickCounter())
+		if (!settings.isHighlightWizards())
 		{
 			return;
 		}
 
-		Stroke fireStroke = getFireBorderStroke();
+		Stroke fireStroke = settings.getFireBorderStroke();
 
-		for (WizardStatue statue : obstacleHandler.getWizardStatues())
+		GameObjectRegistry<WizardStatue> wizardStatues = obstacleHandler.getWizardStatues(playerPlane);
+		for (int i = 0; i < wizardStatues.size(); i++)
 		{
-			WorldPoint statueLocation = statue.getLocation();
-			if (statueLocation.getPlane() != playerPlane)
+			WizardStatue statue = wizardStatues.get(i);
+			if (!isThreatening(statue))
 			{
 				continue;
 			}
 
-			if (!statue.isConfirmedActiveOrUnknown())
+			boolean isFiring = statue.isFiring();
+			if (isFiring && !settings.isShowFireTiles())
 			{
 				continue;
 			}
-
-			if (statue.isSafe())
+			else if (!isFiring && !settings.isShowFireIncoming())
 			{
 				continue;
 			}
 
-			boolean isFiring = statue.isFiring();
-			Color color = isFiring ? config.fireColor() : config.incomingColor();
+			Color color = isFiring ? settings.getFireColor() : settings.getIncomingColor();
+			Color borderColor = isFiring ? settings.getFireBorderColor() : settings.getIncomingBorderColor();
 
-			if (config.wizardTickCounter())
+			int[] fireTiles = statue.getFireTiles();
+			for (int j = 0; j < fireTiles.length; j++)
 			{
-				String tickDisplay = statue.getDisplayTicks();
-				LocalPoint statueLocal = statue.getGameObject().getLocalLocation();
-				if (statueLocal != null)
+				Polygon poly = getTilePolygon(fireTiles[j]);
+				if (poly != null)
 				{
-					Point textLocation = Perspective.getCanvasTextLocation(client, graphics, statueLocal, tickDisplay, 0);
-					if (textLocation != null)
-					{
-						OverlayUtil.renderTextLocation(graphics, textLocation, tickDisplay, color);
-					}
+					shapes.add(poly, color, borderColor, fireStroke);
 				}
 			}
+		}
+	}
 
-			if (!config.highlightWizards())
-			{
-				continue;
-			}
+	/**
+	 * Recorded as labels, which are replayed after all tile shapes so the counters sit on top.
+	 */
+	private void recordWizardTickCounters(Graphics2D graphics, SepulchreRenderSettings settings, int playerPlane)
+	{
+		if (!settings.isWizardTickCounter())
+		{
+			return;
+		}
 
-			if (isFiring && !config.showFireTiles())
+		GameObjectRegistry<WizardStatue> wizardStatues = obstacleHandler.getWizardStatues(playerPlane);
+		for (int i = 0; i < wizardStatues.size(); i++)
+		{
+			WizardStatue statue = wizardStatues.get(i);
+			if (!isThreatening(statue))
 			{
 				continue;
 			}
-			else if (!isFiring && !config.showFireIncoming())
+
+			LocalPoint statueLocal = getVisibleLocation(statue.getGameObject().getLocalLocation());
+			if (statueLocal == null)
 			{
 				continue;
 			}
 
-			Color borderColor = getFireBorderColor(color);
-
-			for (WorldPoint fireTile : statue.getFireTiles())
+			Point canvasLocation = Perspective.localToCanvas(client, statueLocal, playerPlane, 0);
+			metrics.increment(HotPathMetrics.Counter.PROJECTIONS);
+			if (canvasLocation != null)
 			{
-				Polygon poly = getTilePolygon(fireTile, playerPlane);
-				if (poly != null)
-				{
-					renderTilePolygon(graphics, poly, color, borderColor, fireStroke);
-				}
+				Color color = statue.isFiring() ? settings.getFireColor() : settings.getIncomingColor();
+				BufferedImage glyph = digitAtlas.get(graphics, color, statue.getDisplayTicksGlyph());
+				// centred on the statue with the baseline at its canvas point, as getCanvasTextLocation places text
+				int x = canvasLocation.getX() - (glyph.getWidth() - 1) / 2;
+				int y = canvasLocation.getY() - digitAtlas.getAscent();
+				displayList.addLabel(x, y, glyph);
 			}
 		}
 	}
 
-	private void renderBoltNpcs(Graphics2D graphics, int playerPlane)
+	private static boolean isThreatening(WizardStatue statue)
+	{
+		return statue.isConfirmedActiveOrUnknown() && !statue.isSafe();
+	}
+
+	private void renderBoltNpcs(ShapeBatch shapes, SepulchreRenderSettings settings, int playerPlane)
 	{
-		if (!config.highlightBolts())
+		if (!settings.isHighlightBolts())
 		{
 			return;
 		}
 
-		Color fillColor = config.boltFillColor();
-		Color borderColor = config.boltBorderColor();
-		Stroke stroke = getProjectileBorderStroke();
+		Color fillColor = settings.getBoltFillColor();
+		Color borderColor = settings.getBoltBorderColor();
+		Stroke stroke = settings.getProjectileBorderStroke();
 
-		for (NPC npc : obstacleHandler.getBoltNpcs())
+		ProjectileTracker bolts = obstacleHandler.getBolts(playerPlane);
+		for (int i = 0; i < bolts.size(); i++)
 		{
-			WorldPoint npcLocation = npc.getWorldLocation();
-			if (npcLocation.getPlane() != playerPlane)
-			{
-				continue;
-			}
-
-			LocalPoint lp = npc.getLocalLocation();
+			LocalPoint lp = getVisibleLocation(bolts.getNpc(i).getLocalLocation());
 			if (lp == null)
 			{
 				continue;
 			}
 
 			Polygon poly = Perspective.getCanvasTilePoly(client, lp);
+			metrics.increment(HotPathMetrics.Counter.PROJECTIONS);
 			if (poly != null)
 			{
-				renderTilePolygon(graphics, poly, fillColor, borderColor, stroke);
+				shapes.add(poly, fillColor, borderColor, stroke);
 			}
 		}
 	}
 
-	private void renderSwordNpcs(Graphics2D graphics, int playerPlane)
+	private void renderSwordNpcs(ShapeBatch shapes, SepulchreRenderSettings settings, int playerPlane)
 	{
-		if (!config.highlightSwords())
+		if (!settings.isHighlightSwords())
 		{
 			return;
 		}
 
-		Color fillColor = config.swordFillColor();
-		Color borderColor = config.swordBorderColor();
-		Stroke stroke = getProjectileBorderStroke();
+		Color fillColor = settings.getSwordFillColor();
+		Color borderColor = settings.getSwordBorderColor();
+		Stroke stroke = settings.getProjectileBorderStroke();
 
-		for (NPC npc : obstacleHandler.getSwordNpcs())
+		ProjectileTracker swords = obstacleHandler.getSwords(playerPlane);
+		for (int i = 0; i < swords.size(); i++)
 		{
-			WorldPoint npcLocation = npc.getWorldLocation();
-			if (npcLocation.getPlane() != playerPlane)
-			{
-				continue;
-			}
-
-			LocalPoint lp = npc.getLocalLocation();
+			NPC npc = swords.getNpc(i);
+			LocalPoint lp = getVisibleLocation(npc.getLocalLocation());
 			if (lp == null)
 			{
 				continue;
@@ -354,39 +455,141 @@ public class SepulchreSceneOverlay extends Overlay
 			int size = (composition != null) ? composition.getSize() : 1;
 
 			Polygon poly = Perspective.getCanvasTileAreaPoly(client, lp, size);
+			metrics.increment(HotPathMetrics.Counter.PROJECTIONS);
+			if (poly != null)
+			{
+				shapes.add(poly, fillColor, borderColor, stroke);
+			}
+		}
+	}
+
+	/**
+	 * Lanes are predicted once per tick, so they are recorded into the display list with the
+	 * other tick state rather than drawn live like the NPCs themselves.
+	 */
+	private void renderProjectileLanes(ShapeBatch shapes, SepulchreRenderSettings settings, int playerPlane)
+	{
+		if (!settings.isShowProjectileLanes())
+		{
+			return;
+		}
+
+		Stroke stroke = settings.getProjectileBorderStroke();
+		if (settings.isHighlightBolts())
+		{
+			renderLanes(shapes, obstacleHandler.getBolts(playerPlane), settings.getBoltLaneColors(), settings.getBoltLaneBorderColors(), stroke);
+		}
+		if (settings.isHighlightSwords())
+		{
+			renderLanes(shapes, obstacleHandler.getSwords(playerPlane), settings.getSwordLaneColors(), settings.getSwordLaneBorderColors(), stroke);
+		}
+	}
+
+	/**
+	 * A multi-tile NPC's lane positions overlap, so each position only draws the tiles its
+	 * footprint newly covers, the ones with no footprint tile one step behind them.
+	 */
+	private void renderLanes(ShapeBatch shapes, ProjectileTracker projectiles, Color[] colors, Color[] borderColors, Stroke stroke)
+	{
+		for (int slot = 0; slot < projectiles.size(); slot++)
+		{
+			int size = projectiles.getSize(slot);
+			int unitX = Integer.signum(projectiles.getStepX(slot));
+			int unitY = Integer.signum(projectiles.getStepY(slot));
+			int laneLength = projectiles.getLaneLength(slot);
+			for (int i = 0; i < laneLength; i++)
+			{
+				int laneTile = projectiles.getLaneTile(slot, i);
+				int x = TileKey.getX(laneTile);
+				int y = TileKey.getY(laneTile);
+				int plane = TileKey.getPlane(laneTile);
+				int fade = projectiles.getLaneTicksAhead(slot, i) - 1;
+				for (int dx = 0; dx < size; dx++)
+				{
+					for (int dy = 0; dy < size; dy++)
+					{
+						int behindX = dx - unitX;
+						int behindY = dy - unitY;
+						if (behindX >= 0 && behindX < size && behindY >= 0 && behindY < size)
+						{
+							continue;
+						}
+
+						Polygon poly = getTilePolygon(TileKey.pack(x + dx, y + dy, plane));
+						if (poly != null)
+						{
+							shapes.add(poly, colors[fade], borderColors[fade], stroke);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * The planner only changes its route on game ticks, after the handler has bumped its
+	 * generation, so the route is recorded into the display list with the other tick state.
+	 * The player's own tile is only drawn, in the fire colour, while it is dangerous.
+	 */
+	private void renderSafePath(ShapeBatch shapes, SepulchreRenderSettings settings)
+	{
+		if (!settings.isShowSafePath())
+		{
+			return;
+		}
+
+		Color color = settings.getSafePathColor();
+		Color borderColor = settings.getSafePathBorderColor();
+
+		int[] path = safePathPlanner.getPath();
+		int length = safePathPlanner.getPathLength();
+		if (length > 0 && obstacleHandler.getDangerGrid().isDangerous(path[0]))
+		{
+			Polygon poly = getTilePolygon(path[0]);
+			if (poly != null)
+			{
+				shapes.add(poly, settings.getFireColor(), settings.getFireBorderColor(), SepulchreRenderSettings.DEFAULT_STROKE);
+			}
+		}
+
+		for (int i = 1; i < length; i++)
+		{
+			Polygon poly = getTilePolygon(path[i]);
 			if (poly != null)
 			{
-				renderTilePolygon(graphics, poly, fillColor, borderColor, stroke);
+				shapes.add(poly, color, borderColor, SepulchreRenderSettings.DEFAULT_STROKE);
 			}
 		}
 	}
 
-	private void renderPortals(Graphics2D graphics, int playerPlane)
+	private void renderPortals(ShapeBatch shapes, SepulchreRenderSettings settings, int playerPlane)
 	{
-		if (config.highlightYellowPortals())
+		if (settings.isHighlightYellowPortals())
 		{
-			Color yellowColor = config.portalYellowColor();
-			Color yellowBorder = new Color(yellowColor.getRed(), yellowColor.getGreen(), yellowColor.getBlue(), 255);
-			for (WorldPoint portalLocation : obstacleHandler.getActiveYellowPortals())
+			Color yellowColor = settings.getPortalYellowColor();
+			Color yellowBorder = settings.getPortalYellowBorderColor();
+			IntHashSet activeYellowPortals = obstacleHandler.getActiveYellowPortals(playerPlane);
+			for (int i = 0; i < activeYellowPortals.size(); i++)
 			{
-				Polygon poly = getTilePolygon(portalLocation, playerPlane);
+				Polygon poly = getTilePolygon(activeYellowPortals.keyAt(i));
 				if (poly != null)
 				{
-					renderTilePolygon(graphics, poly, yellowColor, yellowBorder, DEFAULT_STROKE);
+					shapes.add(poly, yellowColor, yellowBorder, SepulchreRenderSettings.DEFAULT_STROKE);
 				}
 			}
 		}
 
-		if (config.highlightBluePortals())
+		if (settings.isHighlightBluePortals())
 		{
-			Color blueColor = config.portalBlueColor();
-			Color blueBorder = new Color(blueColor.getRed(), blueColor.getGreen(), blueColor.getBlue(), 255);
-			for (WorldPoint portalLocation : obstacleHandler.getActiveBluePortals())
+			Color blueColor = settings.getPortalBlueColor();
+			Color blueBorder = settings.getPortalBlueBorderColor();
+			IntHashSet activeBluePortals = obstacleHandler.getActiveBluePortals(playerPlane);
+			for (int i = 0; i < activeBluePortals.size(); i++)
 			{
-				Polygon poly = getTilePolygon(portalLocation, playerPlane);
+				Polygon poly = getTilePolygon(activeBluePortals.keyAt(i));
 				if (poly != null)
 				{
-					renderTilePolygon(graphics, poly, blueColor, blueBorder, DEFAULT_STROKE);
+					shapes.add(poly, blueColor, blueBorder, SepulchreRenderSettings.DEFAULT_STROKE);
 				}
 			}
 		}
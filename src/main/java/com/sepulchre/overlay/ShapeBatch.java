@@ -0,0 +1,145 @@
+package com.sepulchre.overlay;
+
+import lombok.Getter;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.Path2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects outlined, filled shapes into one {@link Path2D} per paint state (fill, border, stroke),
+ * so a frame issues one draw and one fill per state instead of per shape.
+ * Groups are flushed in the order their paint state was first used.
+ */
+public class ShapeBatch
+{
+	private static final class Group
+	{
+		private final Path2D.Float path = new Path2D.Float();
+		private Color fillColor;
+		private Color borderColor;
+		private Stroke stroke;
+
+		private boolean matches(Color fillColor, Color borderColor, Stroke stroke)
+		{
+			return this.fillColor.equals(fillColor) && this.borderColor.equals(borderColor) && this.stroke.equals(stroke);
+		}
+	}
+
+	/**
+	 * Groups are pooled across frames; only the first {@code groupCount} are in use.
+	 */
+	private final List<Group> groups = new ArrayList<>();
+	private int groupCount;
+
+	/**
+	 * Graphics2D draw and fill calls issued by the last {@link #draw(Graphics2D)}.
+	 */
+	@Getter
+	private int drawCalls;
+
+	public void add(Polygon polygon, Color fillColor, Color borderColor, Stroke stroke)
+	{
+		if (polygon.npoints < 3)
+		{
+			return;
+		}
+
+		Path2D.Float path = group(fillColor, borderColor, stroke).path;
+		int[] xpoints = polygon.xpoints;
+		int[] ypoints = polygon.ypoints;
+		path.moveTo(xpoints[0], ypoints[0]);
+		for (int i = 1; i < polygon.npoints; i++)
+		{
+			path.lineTo(xpoints[i], ypoints[i]);
+		}
+		path.closePath();
+	}
+
+	public void add(Shape shape, Color fillColor, Color borderColor, Stroke stroke)
+	{
+		if (shape instanceof Polygon)
+		{
+			add((Polygon) shape, fillColor, borderColor, stroke);
+			return;
+		}
+
+		group(fillColor, borderColor, stroke).path.append(shape, false);
+	}
+
+	/**
+	 * Draws and clears the batch.
+	 *
+	 * @return the number of draw and fill calls issued
+	 */
+	public int flush(Graphics2D graphics)
+	{
+		int calls = draw(graphics);
+		reset();
+		return calls;
+	}
+
+	/**
+	 * Draws the batch and keeps its contents, so the same geometry can be drawn again.
+	 *
+	 * @return the number of draw and fill calls issued
+	 */
+	public int draw(Graphics2D graphics)
+	{
+		int calls = 0;
+		for (int i = 0; i < groupCount; i++)
+		{
+			Group group = groups.get(i);
+			graphics.setStroke(group.stroke);
+			graphics.setColor(group.borderColor);
+			graphics.draw(group.path);
+			graphics.setColor(group.fillColor);
+			graphics.fill(group.path);
+			calls += 2;
+		}
+		drawCalls = calls;
+		return calls;
+	}
+
+	public void reset()
+	{
+		for (int i = 0; i < groupCount; i++)
+		{
+			groups.get(i).path.reset();
+		}
+		groupCount = 0;
+	}
+
+	private Group group(Color fillColor, Color borderColor, Stroke stroke)
+	{
+		for (int i = 0; i < groupCount; i++)
+		{
+			Group group = groups.get(i);
+			if (group.matches(fillColor, borderColor, stroke))
+			{
+				return group;
+			}
+		}
+
+		Group group;
+		if (groupCount < groups.size())
+		{
+			group = groups.get(groupCount);
+		}
+		else
+		{
+			group = new Group();
+			groups.add(group);
+		}
+		group.fillColor = fillColor;
+		group.borderColor = borderColor;
+		group.stroke = stroke;
+		groupCount++;
+		return group;
+	}
+}
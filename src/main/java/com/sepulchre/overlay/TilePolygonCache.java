@@ -0,0 +1,75 @@
+package com.sepulchre.overlay;
+
+import com.sepulchre.metrics.HotPathMetrics;
+import com.sepulchre.util.IntIntHashMap;
+import com.sepulchre.util.TileKey;
+import net.runelite.api.Client;
+import net.runelite.api.Perspective;
+import net.runelite.api.coords.LocalPoint;
+
+import java.awt.Polygon;
+import java.util.Arrays;
+
+/**
+ * Canvas polygons for packed world tiles, valid for one camera fingerprint.
+ * Tiles that do not project (off scene or behind the camera) are cached as misses too.
+ * The owner clears the cache whenever {@link CameraFingerprint#update(Client)} reports movement.
+ */
+public class TilePolygonCache
+{
+	private static final int MAX_ENTRIES = 1024;
+
+	private final HotPathMetrics metrics;
+	private final IntIntHashMap slots = new IntIntHashMap(-1);
+	private Polygon[] polygons = new Polygon[64];
+	private int size;
+
+	public TilePolygonCache(HotPathMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
+
+	public Polygon get(Client client, int tile)
+	{
+		int slot = slots.get(tile);
+		if (slot >= 0)
+		{
+			metrics.increment(HotPathMetrics.Counter.TILE_CACHE_HITS);
+			return polygons[slot];
+		}
+		metrics.increment(HotPathMetrics.Counter.TILE_CACHE_MISSES);
+
+		if (size == MAX_ENTRIES)
+		{
+			clear();
+		}
+
+		Polygon polygon = project(client, tile);
+		metrics.increment(HotPathMetrics.Counter.PROJECTIONS);
+		if (size == polygons.length)
+		{
+			polygons = Arrays.copyOf(polygons, size << 1);
+		}
+		polygons[size] = polygon;
+		slots.put(tile, size);
+		size++;
+		return polygon;
+	}
+
+	public void clear()
+	{
+		slots.clear();
+		Arrays.fill(polygons, 0, size, null);
+		size = 0;
+	}
+
+	private static Polygon project(Client client, int tile)
+	{
+		LocalPoint localPoint = LocalPoint.fromWorld(client, TileKey.getX(tile), TileKey.getY(tile));
+		if (localPoint == null)
+		{
+			return null;
+		}
+		return Perspective.getCanvasTilePoly(client, localPoint);
+	}
+}
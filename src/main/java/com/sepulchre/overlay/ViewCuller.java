@@ -0,0 +1,108 @@
+package com.sepulchre.overlay;
+
+import com.sepulchre.util.TileKey;
+import net.runelite.api.Client;
+import net.runelite.api.Constants;
+import net.runelite.api.Perspective;
+
+/**
+ * Cheap pre-projection visibility test. Repeats the camera transform {@link Perspective} uses,
+ * but only for a tile centre, and rejects points that are outside the loaded scene, behind the
+ * near plane or outside the view frustum by more than {@link #MARGIN}.
+ * <p>
+ * The test is conservative: anything it rejects could not have produced on-screen geometry,
+ * anything it accepts still goes through the real projection.
+ */
+public class ViewCuller
+{
+	private static final int NEAR_PLANE = 50;
+
+	/**
+	 * Local units of slack around the tested point; covers a tile's half diagonal and the
+	 * height of the statue models drawn in hull or clickbox style.
+	 */
+	private static final int MARGIN = 320;
+
+	private int cameraX;
+	private int cameraY;
+	private int cameraZ;
+	private int yawSin;
+	private int yawCos;
+	private int pitchSin;
+	private int pitchCos;
+	private int scale;
+	private int halfWidth;
+	private int halfHeight;
+	private int baseX;
+	private int baseY;
+	private int[][] tileHeights;
+
+	public void update(Client client, int plane)
+	{
+		cameraX = client.getCameraX();
+		cameraY = client.getCameraY();
+		cameraZ = client.getCameraZ();
+		int yaw = client.getCameraYaw();
+		int pitch = client.getCameraPitch();
+		yawSin = Perspective.SINE[yaw];
+		yawCos = Perspective.COSINE[yaw];
+		pitchSin = Perspective.SINE[pitch];
+		pitchCos = Perspective.COSINE[pitch];
+		scale = client.getScale();
+		halfWidth = client.getViewportWidth() / 2;
+		halfHeight = client.getViewportHeight() / 2;
+		baseX = client.getBaseX();
+		baseY = client.getBaseY();
+		tileHeights = client.getTileHeights()[plane];
+	}
+
+	/**
+	 * @param tile packed world tile on the plane passed to {@link #update(Client, int)}
+	 */
+	public boolean isVisible(int tile)
+	{
+		int sceneX = TileKey.getX(tile) - baseX;
+		int sceneY = TileKey.getY(tile) - baseY;
+		if (sceneX < 0 || sceneY < 0 || sceneX >= Constants.SCENE_SIZE || sceneY >= Constants.SCENE_SIZE)
+		{
+			return false;
+		}
+
+		int half = Perspective.LOCAL_HALF_TILE_SIZE;
+		return isVisible((sceneX << Perspective.LOCAL_COORD_BITS) + half, (sceneY << Perspective.LOCAL_COORD_BITS) + half);
+	}
+
+	/**
+	 * @param localX local x on the plane passed to {@link #update(Client, int)}
+	 * @param localY local y on the plane passed to {@link #update(Client, int)}
+	 */
+	public boolean isVisible(int localX, int localY)
+	{
+		int sceneX = localX >> Perspective.LOCAL_COORD_BITS;
+		int sceneY = localY >> Perspective.LOCAL_COORD_BITS;
+		if (sceneX < 0 || sceneY < 0 || sceneX >= Constants.SCENE_SIZE || sceneY >= Constants.SCENE_SIZE)
+		{
+			return false;
+		}
+
+		int x = localX - cameraX;
+		int y = localY - cameraY;
+		int z = tileHeights[sceneX][sceneY] - cameraZ;
+
+		int x1 = x * yawCos + y * yawSin >> 16;
+		int y1 = y * yawCos - x * yawSin >> 16;
+		int y2 = z * pitchCos - y1 * pitchSin >> 16;
+		int depth = y1 * pitchCos + z * pitchSin >> 16;
+
+		int farDepth = depth + MARGIN;
+		if (farDepth < NEAR_PLANE)
+		{
+			return false;
+		}
+
+		// off to a side even after pulling the point MARGIN towards the view axis
+		long horizontal = (long) (Math.abs(x1) - MARGIN) * scale;
+		long vertical = (long) (Math.abs(y2) - MARGIN) * scale;
+		return horizontal <= (long) halfWidth * farDepth && vertical <= (long) halfHeight * farDepth;
+	}
+}
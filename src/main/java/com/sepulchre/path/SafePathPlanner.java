@@ -0,0 +1,540 @@
+package com.sepulchre.path;
+
+import com.sepulchre.handler.ObstacleHandler;
+import com.sepulchre.model.WizardStatue;
+import com.sepulchre.util.DangerGrid;
+import com.sepulchre.util.GameObjectRegistry;
+import com.sepulchre.util.IntIntHashMap;
+import com.sepulchre.util.ProjectileTracker;
+import com.sepulchre.util.TileKey;
+import net.runelite.api.Client;
+import net.runelite.api.CollisionData;
+import net.runelite.api.CollisionDataFlag;
+import net.runelite.api.Constants;
+import net.runelite.api.Player;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Arrays;
+
+/**
+ * Fastest hazard-free route from the player to their walk destination over the next
+ * {@link #HORIZON} ticks.
+ * <p>
+ * Hazards are forecast into a per-tile bitmask of dangerous ticks over a {@link #WINDOW}-tile
+ * square around the player, and the route is a breadth-first search of the time-expanded grid:
+ * layer {@code t} holds every tile reachable on tick {@code t} without standing on a dangerous
+ * tile, so the first layer to reach the destination gives the fastest arrival. Each tick the
+ * previous route is first re-validated against the fresh forecast and kept when the player is
+ * still on it, so the search only runs when the hazards or the destination invalidate the plan.
+ * <p>
+ * All search state lives in preallocated primitive arrays; planning never allocates.
+ */
+@Singleton
+public class SafePathPlanner
+{
+	public static final int HORIZON = 16;
+
+	private static final int WINDOW_BITS = 5;
+	private static final int WINDOW = 1 << WINDOW_BITS;
+	private static final int WINDOW_MASK = WINDOW - 1;
+	private static final int CELLS = WINDOW * WINDOW;
+	private static final int ALL_TICKS = (1 << (HORIZON + 1)) - 1;
+
+	private static final int BLOCKED = -1;
+	private static final int NO_PARENT = -1;
+
+	private static final int[] STEP_DX = {0, 0, 1, 1, 1, 0, -1, -1, -1};
+	private static final int[] STEP_DY = {0, 1, 1, 0, -1, -1, -1, 0, 1};
+
+	private final Client client;
+	private final ObstacleHandler obstacleHandler;
+
+	/**
+	 * Bit {@code t} is set when the cell is dangerous {@code t} ticks from now.
+	 */
+	private final int[] danger = new int[CELLS];
+	private final int[] collision = new int[CELLS];
+
+	private final int[] visited = new int[(HORIZON + 1) * CELLS];
+	private final int[] parent = new int[(HORIZON + 1) * CELLS];
+	private final int[] runExpanded = new int[CELLS];
+	private int[] frontier = new int[CELLS];
+	private int[] nextFrontier = new int[CELLS];
+	private int stamp;
+	private int layerStamp;
+
+	private int originX;
+	private int originY;
+	private int plane;
+
+	private final int[] path = new int[HORIZON + 1];
+	private int pathLength;
+	private int pathTick;
+	private int pathTarget = -1;
+	private boolean pathComplete;
+
+	@Inject
+	public SafePathPlanner(Client client, ObstacleHandler obstacleHandler)
+	{
+		this.client = client;
+		this.obstacleHandler = obstacleHandler;
+	}
+
+	/**
+	 * Packed tiles of the current route, one per tick starting with the player's tile.
+	 */
+	public int[] getPath()
+	{
+		return path;
+	}
+
+	public int getPathLength()
+	{
+		return pathLength;
+	}
+
+	/**
+	 * @return false when the destination could not be reached within the horizon and the route
+	 * only gets as close as it safely can
+	 */
+	public boolean isPathComplete()
+	{
+		return pathComplete;
+	}
+
+	public void clear()
+	{
+		pathLength = 0;
+		pathTarget = -1;
+		pathComplete = false;
+	}
+
+	/**
+	 * Replans for the current tick; call on the client thread after the handler's tick.
+	 *
+	 * @param running whether the player covers up to two tiles per tick
+	 */
+	public void update(boolean running)
+	{
+		Player player = client.getLocalPlayer();
+		LocalPoint destination = client.getLocalDestinationLocation();
+		WorldPoint location = player != null ? player.getWorldLocation() : null;
+		if (location == null || destination == null)
+		{
+			clear();
+			return;
+		}
+
+		int start = TileKey.pack(location);
+		int target = TileKey.fromLocal(client, destination);
+		int now = obstacleHandler.getTick();
+
+		plane = location.getPlane();
+		originX = location.getX() - WINDOW / 2;
+		originY = location.getY() - WINDOW / 2;
+		forecast(now);
+
+		if (target == pathTarget && pathComplete && revalidate(start, now))
+		{
+			return;
+		}
+
+		readCollision();
+		search(start, target, running);
+		pathTick = now;
+		pathTarget = target;
+	}
+
+	/**
+	 * Drops the steps already taken and checks the rest against the new forecast.
+	 */
+	private boolean revalidate(int start, int now)
+	{
+		int taken = now - pathTick;
+		if (taken < 0 || taken >= pathLength || path[taken] != start)
+		{
+			return false;
+		}
+
+		for (int i = taken; i < pathLength; i++)
+		{
+			int cell = cellOf(path[i]);
+			if (cell < 0 || (danger[cell] & (1 << (i - taken))) != 0)
+			{
+				return false;
+			}
+		}
+
+		System.arraycopy(path, taken, path, 0, pathLength - taken);
+		pathLength -= taken;
+		pathTick = now;
+		return true;
+	}
+
+	private void search(int start, int target, boolean running)
+	{
+		if (++stamp == 0)
+		{
+			Arrays.fill(visited, 0);
+			stamp = 1;
+		}
+
+		int startCell = cellOf(start);
+		int targetX = TileKey.getX(target) - originX;
+		int targetY = TileKey.getY(target) - originY;
+
+		visited[startCell] = stamp;
+		parent[startCell] = NO_PARENT;
+		int best = startCell;
+		int bestDistance = distance(startCell, targetX, targetY);
+		int frontierSize = 1;
+		frontier[0] = startCell;
+
+		for (int t = 0; t < HORIZON && frontierSize > 0 && bestDistance > 0; t++)
+		{
+			int arrivalBit = 1 << (t + 1);
+			int layer = (t + 1) * CELLS;
+			int nextSize = 0;
+			layerStamp++;
+
+			for (int f = 0; f < frontierSize; f++)
+			{
+				int cell = frontier[f];
+				int from = t * CELLS + cell;
+
+				for (int d = 0; d < STEP_DX.length; d++)
+				{
+					int step = step(cell, STEP_DX[d], STEP_DY[d]);
+					if (step < 0 || (danger[step] & arrivalBit) != 0)
+					{
+						continue;
+					}
+
+					if (visited[layer + step] != stamp)
+					{
+						visited[layer + step] = stamp;
+						parent[layer + step] = from;
+						nextFrontier[nextSize++] = step;
+
+						int stepDistance = distance(step, targetX, targetY);
+						if (stepDistance < bestDistance)
+						{
+							bestDistance = stepDistance;
+							best = layer + step;
+						}
+					}
+
+					if (!running || d == 0 || runExpanded[step] == layerStamp)
+					{
+						continue;
+					}
+
+					// The second tile of a run step, reached on the same tick through an already safe tile.
+					// Its parent is this cell, not the step tile's: that may be a cell whose own run
+					// reached the step tile, out of a single run's reach of the second tile.
+					runExpanded[step] = layerStamp;
+					for (int e = 1; e < STEP_DX.length; e++)
+					{
+						int run = step(step, STEP_DX[e], STEP_DY[e]);
+						if (run < 0 || (danger[run] & arrivalBit) != 0 || visited[layer + run] == stamp)
+						{
+							continue;
+						}
+
+						visited[layer + run] = stamp;
+						parent[layer + run] = from;
+						nextFrontier[nextSize++] = run;
+
+						int runDistance = distance(run, targetX, targetY);
+						if (runDistance < bestDistance)
+						{
+							bestDistance = runDistance;
+							best = layer + run;
+						}
+					}
+				}
+			}
+
+			int[] swap = frontier;
+			frontier = nextFrontier;
+			nextFrontier = swap;
+			frontierSize = nextSize;
+		}
+
+		pathComplete = bestDistance == 0;
+		pathLength = best / CELLS + 1;
+		for (int state = best, i = pathLength - 1; state != NO_PARENT; state = parent[state], i--)
+		{
+			int cell = state % CELLS;
+			path[i] = TileKey.pack(originX + (cell & WINDOW_MASK), originY + (cell >> WINDOW_BITS), plane);
+		}
+	}
+
+	/**
+	 * Fills {@link #danger} with the ticks on which each window cell is covered by wizard fire,
+	 * lightning or a projectile NPC. The current tick is taken from the handler's
+	 * {@link DangerGrid}, so a route is replanned once the player stands on anything the handler
+	 * holds as dangerous, whether or not the forecast saw it coming.
+	 */
+	private void forecast(int now)
+	{
+		DangerGrid dangerGrid = obstacleHandler.getDangerGrid();
+		for (int cell = 0; cell < CELLS; cell++)
+		{
+			danger[cell] = dangerGrid.isDangerous(originX + (cell & WINDOW_MASK), originY + (cell >> WINDOW_BITS), plane) ? 1 : 0;
+		}
+
+		GameObjectRegistry<WizardStatue> wizards = obstacleHandler.getWizardStatues(plane);
+		for (int i = 0; i < wizards.size(); i++)
+		{
+			WizardStatue wizard = wizards.get(i);
+			int mask = fireMask(wizard);
+			if (mask != 0)
+			{
+				markAll(wizard.getFireTiles(), mask);
+			}
+		}
+
+		IntIntHashMap pending = obstacleHandler.getPendingLightning();
+		for (int i = 0; i < pending.size(); i++)
+		{
+			int tile = pending.keyAt(i);
+			if (TileKey.getPlane(tile) == plane)
+			{
+				int lands = pending.valueAt(i) - now;
+				mark(tile, ticksBetween(lands, lands + ObstacleHandler.LIGHTNING_ACTIVE_TICKS));
+			}
+		}
+
+		IntIntHashMap active = obstacleHandler.getActiveLightning(plane);
+		for (int i = 0; i < active.size(); i++)
+		{
+			mark(active.keyAt(i), ticksBetween(0, active.valueAt(i) - now));
+		}
+
+		markProjectiles(obstacleHandler.getBolts(plane));
+		markProjectiles(obstacleHandler.getSwords(plane));
+	}
+
+	/**
+	 * Moving projectiles cover each tile of their predicted lane from a tick before to a tick
+	 * after the predicted arrival, to absorb timing error. Projectiles with no lane are treated
+	 * as occupying their current tiles for the whole horizon.
+	 */
+	private void markProjectiles(ProjectileTracker projectiles)
+	{
+		for (int slot = 0; slot < projectiles.size(); slot++)
+		{
+			int size = projectiles.getSize(slot);
+			int laneLength = projectiles.getLaneLength(slot);
+			if (laneLength == 0)
+			{
+				markFootprint(projectiles.getTile(slot), size, ALL_TICKS);
+				continue;
+			}
+
+			markFootprint(projectiles.getTile(slot), size, ticksBetween(0, 2));
+			for (int i = 0; i < laneLength; i++)
+			{
+				int ticksAhead = projectiles.getLaneTicksAhead(slot, i);
+				markFootprint(projectiles.getLaneTile(slot, i), size, ticksBetween(ticksAhead - 1, ticksAhead + 2));
+			}
+		}
+	}
+
+	/**
+	 * Marks the {@code size}-wide square with its south-west corner on {@code tile}.
+	 */
+	private void markFootprint(int tile, int size, int mask)
+	{
+		int x = TileKey.getX(tile);
+		int y = TileKey.getY(tile);
+		for (int dx = 0; dx < size; dx++)
+		{
+			for (int dy = 0; dy < size; dy++)
+			{
+				mark(TileKey.pack(x + dx, y + dy, plane), mask);
+			}
+		}
+	}
+
+	/**
+	 * Steps the wizard's fire / safe / warning cycle forward from its tick counter. Unsynced
+	 * wizards that may still be active are assumed to be firing throughout.
+	 */
+	private static int fireMask(WizardStatue wizard)
+	{
+		if (!wizard.isConfirmedActiveOrUnknown())
+		{
+			return 0;
+		}
+		if (!wizard.isSynced())
+		{
+			return ALL_TICKS;
+		}
+
+		int phase = wizard.isFiring() ? 0 : wizard.isSafe() ? 1 : 2;
+		int remaining = Math.max(1, wizard.getTickCounter());
+
+		int mask = 0;
+		for (int t = 0; t <= HORIZON; t++)
+		{
+			if (phase == 0)
+			{
+				mask |= 1 << t;
+			}
+			if (--remaining == 0)
+			{
+				phase = (phase + 1) % 3;
+				remaining = phaseLength(wizard, phase);
+			}
+		}
+		return mask;
+	}
+
+	private static int phaseLength(WizardStatue wizard, int phase)
+	{
+		switch (phase)
+		{
+			case 0:
+				return Math.max(1, wizard.getFirePhaseTicks());
+			case 1:
+				return Math.max(1, wizard.getSafePhaseTicks());
+			default:
+				return Math.max(1, wizard.getWarningPhaseTicks());
+		}
+	}
+
+	/**
+	 * @return bits {@code from} (inclusive) to {@code to} (exclusive), clipped to the horizon
+	 */
+	private static int ticksBetween(int from, int to)
+	{
+		from = Math.max(0, from);
+		to = Math.min(HORIZON + 1, to);
+		if (from >= to)
+		{
+			return 0;
+		}
+		return ((1 << to) - 1) & ~((1 << from) - 1);
+	}
+
+	private void markAll(int[] tiles, int mask)
+	{
+		for (int tile : tiles)
+		{
+			mark(tile, mask);
+		}
+	}
+
+	private void mark(int tile, int mask)
+	{
+		int cell = cellOf(tile);
+		if (cell >= 0)
+		{
+			danger[cell] |= mask;
+		}
+	}
+
+	private void readCollision()
+	{
+		CollisionData[] maps = client.getCollisionMaps();
+		int[][] flags = maps != null && plane < maps.length && maps[plane] != null ? maps[plane].getFlags() : null;
+		int sceneOriginX = originX - client.getBaseX();
+		int sceneOriginY = originY - client.getBaseY();
+
+		for (int cell = 0; cell < CELLS; cell++)
+		{
+			int sceneX = sceneOriginX + (cell & WINDOW_MASK);
+			int sceneY = sceneOriginY + (cell >> WINDOW_BITS);
+			if (sceneX < 0 || sceneY < 0 || sceneX >= Constants.SCENE_SIZE || sceneY >= Constants.SCENE_SIZE)
+			{
+				collision[cell] = BLOCKED;
+			}
+			else if (flags == null || sceneX >= flags.length || sceneY >= flags[sceneX].length)
+			{
+				collision[cell] = 0;
+			}
+			else
+			{
+				collision[cell] = flags[sceneX][sceneY];
+			}
+		}
+	}
+
+	/**
+	 * @return the cell one step away, or -1 when the move leaves the window or is blocked.
+	 * Diagonal moves need both of the L-shaped cardinal routes to be open.
+	 */
+	private int step(int cell, int dx, int dy)
+	{
+		if (dx == 0 && dy == 0)
+		{
+			return cell;
+		}
+		if (dx == 0 || dy == 0)
+		{
+			return cardinal(cell, dx, dy);
+		}
+
+		int horizontal = cardinal(cell, dx, 0);
+		int vertical = cardinal(cell, 0, dy);
+		if (horizontal < 0 || vertical < 0)
+		{
+			return -1;
+		}
+
+		int diagonal = cardinal(horizontal, 0, dy);
+		if (diagonal < 0 || cardinal(vertical, dx, 0) != diagonal)
+		{
+			return -1;
+		}
+		return diagonal;
+	}
+
+	private int cardinal(int cell, int dx, int dy)
+	{
+		int x = (cell & WINDOW_MASK) + dx;
+		int y = (cell >> WINDOW_BITS) + dy;
+		if (x < 0 || y < 0 || x >= WINDOW || y >= WINDOW)
+		{
+			return -1;
+		}
+
+		int next = (y << WINDOW_BITS) | x;
+		int fromFlags = collision[cell];
+		int toFlags = collision[next];
+		if (toFlags == BLOCKED || (toFlags & CollisionDataFlag.BLOCK_MOVEMENT_FULL) != 0)
+		{
+			return -1;
+		}
+
+		int wall = dx > 0 ? CollisionDataFlag.BLOCK_MOVEMENT_EAST
+			: dx < 0 ? CollisionDataFlag.BLOCK_MOVEMENT_WEST
+			: dy > 0 ? CollisionDataFlag.BLOCK_MOVEMENT_NORTH
+			: CollisionDataFlag.BLOCK_MOVEMENT_SOUTH;
+		return (fromFlags & wall) != 0 ? -1 : next;
+	}
+
+	/**
+	 * @return the window cell of a packed tile on the planning plane, or -1 outside the window
+	 */
+	private int cellOf(int tile)
+	{
+		int x = TileKey.getX(tile) - originX;
+		int y = TileKey.getY(tile) - originY;
+		if (TileKey.getPlane(tile) != plane || x < 0 || y < 0 || x >= WINDOW || y >= WINDOW)
+		{
+			return -1;
+		}
+		return (y << WINDOW_BITS) | x;
+	}
+
+	private static int distance(int cell, int targetX, int targetY)
+	{
+		return Math.max(Math.abs((cell & WINDOW_MASK) - targetX), Math.abs((cell >> WINDOW_BITS) - targetY));
+	}
+}
@@ -0,0 +1,41 @@
+package com.sepulchre.recording;
+
+/**
+ * Layout of an event recording. A file starts with {@link #MAGIC} and {@link #VERSION}, followed
+ * by records of one type byte, one payload length byte and the payload, all big-endian.
+ * Tiles are {@link com.sepulchre.util.TileKey} packed world tiles; game objects are referred to by
+ * a handle assigned at spawn, NPCs by their client index.
+ * <p>
+ * Readers skip record types they do not know using the length byte.
+ */
+public final class EventLog
+{
+	private EventLog() {}
+
+	public static final int MAGIC = 0x53455052;
+	public static final short VERSION = 1;
+
+	public static final int HEADER_SIZE = 6;
+	public static final int RECORD_HEADER_SIZE = 2;
+
+	/** baseX int, baseY int, plane byte. Starts a recording and follows every scene load. */
+	public static final byte SCENE = 1;
+	/** Empty. The game tick, after the tick's {@link #ANIMATION} records. */
+	public static final byte TICK = 2;
+	/** handle int, id int, tile int, orientation short. */
+	public static final byte OBJECT_SPAWNED = 3;
+	/** handle int. */
+	public static final byte OBJECT_DESPAWNED = 4;
+	/** id int, tile int. */
+	public static final byte GROUND_OBJECT_SPAWNED = 5;
+	/** id int, tile int. */
+	public static final byte GROUND_OBJECT_DESPAWNED = 6;
+	/** index int, id int, tile int. */
+	public static final byte NPC_SPAWNED = 7;
+	/** index int. */
+	public static final byte NPC_DESPAWNED = 8;
+	/** id int, tile int. */
+	public static final byte GRAPHICS_OBJECT_CREATED = 9;
+	/** handle int, animation id int; written when a statue's animation changes. */
+	public static final byte ANIMATION = 10;
+}
@@ -0,0 +1,377 @@
+package com.sepulchre.recording;
+
+import com.sepulchre.util.GameObjectRegistry;
+import com.sepulchre.util.GameObjectUtil;
+import com.sepulchre.util.SepulchreConstants;
+import com.sepulchre.util.TileKey;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.GameObject;
+import net.runelite.api.GraphicsObject;
+import net.runelite.api.GroundObject;
+import net.runelite.api.NPC;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the events the plugin hands to the obstacle handler into an {@link EventLog} file.
+ * <p>
+ * Records are encoded on the client thread into pooled buffers; full buffers are handed to a
+ * single writer thread, so the client thread never touches the disk.
+ * Each recording has its own writer and {@link Output}, so a stopped recording still closing on
+ * its writer can never touch the file of the one that replaced it.
+ */
+@Slf4j
+@Singleton
+public class EventRecorder
+{
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int POOLED_BUFFERS = 4;
+
+	private static final class RecordedObject
+	{
+		private final int handle;
+		private final boolean statue;
+		private int animation = -1;
+
+		private RecordedObject(int handle, boolean statue)
+		{
+			this.handle = handle;
+			this.statue = statue;
+		}
+	}
+
+	/**
+	 * The file of one recording, only touched on that recording's writer thread.
+	 */
+	private static final class Output
+	{
+		private FileChannel channel;
+	}
+
+	private final Client client;
+
+	private final GameObjectRegistry<RecordedObject> objects = new GameObjectRegistry<>();
+	private final List<GameObject> statues = new ArrayList<>();
+	private final BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(POOLED_BUFFERS);
+
+	private ExecutorService writer;
+	private final List<ExecutorService> stoppedWriters = new ArrayList<>();
+	private Output output;
+	private ByteBuffer buffer;
+	private int nextHandle;
+	private boolean recording;
+
+	@Inject
+	public EventRecorder(Client client)
+	{
+		this.client = client;
+	}
+
+	public boolean isRecording()
+	{
+		return recording;
+	}
+
+	/**
+	 * Starts a new recording into {@code file}, replacing it if it exists. The file is opened on
+	 * the writer thread; a failure there is logged and the recording's records are dropped.
+	 */
+	public void start(File file)
+	{
+		if (recording)
+		{
+			stop();
+		}
+
+		writer = Executors.newSingleThreadExecutor(r ->
+		{
+			Thread thread = new Thread(r, "sepulchre-recorder");
+			thread.setDaemon(true);
+			return thread;
+		});
+		Output opened = new Output();
+		output = opened;
+		writer.execute(() -> open(opened, file));
+
+		recording = true;
+		nextHandle = 0;
+		buffer = takeBuffer();
+		buffer.putInt(EventLog.MAGIC).putShort(EventLog.VERSION);
+		recordScene();
+	}
+
+	/**
+	 * Flushes what is buffered and closes the file once the writer thread has caught up.
+	 */
+	public void stop()
+	{
+		if (!recording)
+		{
+			return;
+		}
+
+		recording = false;
+		submit();
+		Output closed = output;
+		writer.execute(() -> close(closed));
+		writer.shutdown();
+		stoppedWriters.removeIf(ExecutorService::isTerminated);
+		stoppedWriters.add(writer);
+		writer = null;
+		output = null;
+		objects.clear();
+		statues.clear();
+	}
+
+	/**
+	 * Waits for every stopped recording to reach the disk. For tools and tests; the client
+	 * thread should never block on this.
+	 */
+	public boolean awaitWritten(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		for (ExecutorService stopped : stoppedWriters)
+		{
+			if (!stopped.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public void recordScene()
+	{
+		if (!recording)
+		{
+			return;
+		}
+
+		begin(EventLog.SCENE, 9);
+		buffer.putInt(client.getBaseX()).putInt(client.getBaseY()).put((byte) client.getPlane());
+		objects.clear();
+		statues.clear();
+	}
+
+	/**
+	 * Records the animation of every statue whose animation changed, then the tick itself.
+	 * Call before the handler samples the tick.
+	 */
+	public void recordTick()
+	{
+		if (!recording)
+		{
+			return;
+		}
+
+		for (int i = 0; i < statues.size(); i++)
+		{
+			GameObject statue = statues.get(i);
+			RecordedObject object = objects.get(statue);
+			int animation = GameObjectUtil.getAnimationId(statue);
+			if (object.animation != animation)
+			{
+				object.animation = animation;
+				begin(EventLog.ANIMATION, 8);
+				buffer.putInt(object.handle).putInt(animation);
+			}
+		}
+
+		begin(EventLog.TICK, 0);
+	}
+
+	public void recordGameObjectSpawned(GameObject gameObject)
+	{
+		if (!recording || objects.contains(gameObject))
+		{
+			return;
+		}
+
+		int kind = SepulchreConstants.OBJECT_KINDS.kindOf(gameObject.getId());
+		boolean statue = kind == SepulchreConstants.KIND_CROSSBOW_STATUE || kind == SepulchreConstants.KIND_WIZARD_STATUE;
+		RecordedObject object = new RecordedObject(nextHandle++, statue);
+		objects.add(gameObject, object);
+		if (statue)
+		{
+			statues.add(gameObject);
+		}
+
+		begin(EventLog.OBJECT_SPAWNED, 14);
+		buffer.putInt(object.handle)
+			.putInt(gameObject.getId())
+			.putInt(TileKey.pack(gameObject.getWorldLocation()))
+			.putShort((short) gameObject.getOrientation());
+	}
+
+	public void recordGameObjectDespawned(GameObject gameObject)
+	{
+		if (!recording)
+		{
+			return;
+		}
+
+		RecordedObject object = objects.remove(gameObject);
+		if (object == null)
+		{
+			return;
+		}
+		if (object.statue)
+		{
+			statues.remove(gameObject);
+		}
+
+		begin(EventLog.OBJECT_DESPAWNED, 4);
+		buffer.putInt(object.handle);
+	}
+
+	public void recordGroundObjectSpawned(GroundObject groundObject)
+	{
+		recordIdAndTile(EventLog.GROUND_OBJECT_SPAWNED, groundObject.getId(), TileKey.pack(groundObject.getWorldLocation()));
+	}
+
+	public void recordGroundObjectDespawned(GroundObject groundObject)
+	{
+		recordIdAndTile(EventLog.GROUND_OBJECT_DESPAWNED, groundObject.getId(), TileKey.pack(groundObject.getWorldLocation()));
+	}
+
+	public void recordNpcSpawned(NPC npc)
+	{
+		if (!recording)
+		{
+			return;
+		}
+
+		begin(EventLog.NPC_SPAWNED, 12);
+		buffer.putInt(npc.getIndex()).putInt(npc.getId()).putInt(TileKey.pack(npc.getWorldLocation()));
+	}
+
+	public void recordNpcDespawned(NPC npc)
+	{
+		if (!recording)
+		{
+			return;
+		}
+
+		begin(EventLog.NPC_DESPAWNED, 4);
+		buffer.putInt(npc.getIndex());
+	}
+
+	public void recordGraphicsObjectCreated(GraphicsObject graphicsObject)
+	{
+		if (!recording)
+		{
+			return;
+		}
+
+		recordIdAndTile(EventLog.GRAPHICS_OBJECT_CREATED, graphicsObject.getId(), TileKey.fromLocal(client, graphicsObject.getLocation()));
+	}
+
+	private void recordIdAndTile(byte type, int id, int tile)
+	{
+		if (!recording)
+		{
+			return;
+		}
+
+		begin(type, 8);
+		buffer.putInt(id).putInt(tile);
+	}
+
+	private void begin(byte type, int length)
+	{
+		if (buffer.remaining() < EventLog.RECORD_HEADER_SIZE + length)
+		{
+			submit();
+			buffer = takeBuffer();
+		}
+		buffer.put(type).put((byte) length);
+	}
+
+	private ByteBuffer takeBuffer()
+	{
+		ByteBuffer free = freeBuffers.poll();
+		return free != null ? free : ByteBuffer.allocate(BUFFER_SIZE);
+	}
+
+	private void submit()
+	{
+		ByteBuffer full = buffer;
+		Output target = output;
+		buffer = null;
+		full.flip();
+		writer.execute(() -> write(target, full));
+	}
+
+	// Writer thread
+
+	private static void open(Output output, File file)
+	{
+		try
+		{
+			File directory = file.getParentFile();
+			if (directory != null && !directory.isDirectory() && !directory.mkdirs())
+			{
+				throw new IOException("unable to create " + directory);
+			}
+			output.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to open event recording {}", file, e);
+			output.channel = null;
+		}
+	}
+
+	private void write(Output output, ByteBuffer full)
+	{
+		try
+		{
+			if (output.channel != null)
+			{
+				while (full.hasRemaining())
+				{
+					output.channel.write(full);
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Event recording write failed, dropping the rest of the recording", e);
+			close(output);
+		}
+		full.clear();
+		freeBuffers.offer(full);
+	}
+
+	private static void close(Output output)
+	{
+		if (output.channel == null)
+		{
+			return;
+		}
+
+		try
+		{
+			output.channel.close();
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to close event recording", e);
+		}
+		output.channel = null;
+	}
+}
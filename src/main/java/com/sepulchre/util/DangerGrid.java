@@ -0,0 +1,98 @@
+package com.sepulchre.util;
+
+import net.runelite.api.Constants;
+
+import java.util.Arrays;
+
+/**
+ * Per-plane bitmap of tiles that are dangerous right now, maintained incrementally as hazards
+ * start and stop. Each tile keeps a count of the hazards covering it, so overlapping fire,
+ * lightning and projectiles are added and removed independently.
+ * <p>
+ * Tiles are indexed by world coordinates modulo {@link #WINDOW}, which is wider than a loaded
+ * scene, so no two tiles of one scene share a cell.
+ */
+public final class DangerGrid
+{
+	private static final int WINDOW_BITS = 7;
+	public static final int WINDOW = 1 << WINDOW_BITS;
+	private static final int WINDOW_MASK = WINDOW - 1;
+	private static final int CELLS = WINDOW * WINDOW;
+
+	private final short[][] counts = new short[Constants.MAX_Z][CELLS];
+	private final long[][] bits = new long[Constants.MAX_Z][CELLS >> 6];
+
+	public void add(int tile)
+	{
+		int plane = TileKey.getPlane(tile);
+		int cell = cell(tile);
+		if (counts[plane][cell]++ == 0)
+		{
+			bits[plane][cell >> 6] |= 1L << cell;
+		}
+	}
+
+	public void remove(int tile)
+	{
+		int plane = TileKey.getPlane(tile);
+		int cell = cell(tile);
+		short count = counts[plane][cell];
+		if (count == 0)
+		{
+			return;
+		}
+
+		counts[plane][cell] = --count;
+		if (count == 0)
+		{
+			bits[plane][cell >> 6] &= ~(1L << cell);
+		}
+	}
+
+	public void addAll(int[] tiles)
+	{
+		for (int tile : tiles)
+		{
+			add(tile);
+		}
+	}
+
+	public void removeAll(int[] tiles)
+	{
+		for (int tile : tiles)
+		{
+			remove(tile);
+		}
+	}
+
+	public boolean isDangerous(int tile)
+	{
+		int cell = cell(tile);
+		return (bits[TileKey.getPlane(tile)][cell >> 6] & (1L << cell)) != 0;
+	}
+
+	public boolean isDangerous(int x, int y, int plane)
+	{
+		int cell = cell(x, y);
+		return (bits[plane][cell >> 6] & (1L << cell)) != 0;
+	}
+
+	public void clear()
+	{
+		for (int plane = 0; plane < Constants.MAX_Z; plane++)
+		{
+			Arrays.fill(counts[plane], (short) 0);
+			Arrays.fill(bits[plane], 0L);
+		}
+	}
+
+	private static int cell(int tile)
+	{
+		return cell(TileKey.getX(tile), TileKey.getY(tile));
+	}
+
+	private static int cell(int x, int y)
+	{
+		return ((y & WINDOW_MASK) << WINDOW_BITS) | (x & WINDOW_MASK);
+	}
+}
@@ -0,0 +1,112 @@
+package com.sepulchre.util;
+
+import net.runelite.api.GameObject;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Values keyed on {@link GameObject} identity, with O(1) insert, lookup and removal.
+ * <p>
+ * Values are stored densely and walked by index ({@code for (int i = 0; i < size(); i++) get(i)})
+ * so render loops need no iterator. The order only changes on removal, when the last value
+ * takes the removed value's slot.
+ */
+public final class GameObjectRegistry<T>
+{
+	private final Map<GameObject, Integer> indices = new IdentityHashMap<>();
+	private GameObject[] keys = new GameObject[16];
+	private Object[] values = new Object[16];
+	private int size;
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(int index)
+	{
+		return (T) values[index];
+	}
+
+	public boolean contains(GameObject gameObject)
+	{
+		return indices.containsKey(gameObject);
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(GameObject gameObject)
+	{
+		Integer index = indices.get(gameObject);
+		return index != null ? (T) values[index] : null;
+	}
+
+	/**
+	 * @return false if the object is already registered
+	 */
+	public boolean add(GameObject gameObject, T value)
+	{
+		if (indices.containsKey(gameObject))
+		{
+			return false;
+		}
+
+		if (size == keys.length)
+		{
+			keys = Arrays.copyOf(keys, size << 1);
+			values = Arrays.copyOf(values, size << 1);
+		}
+
+		keys[size] = gameObject;
+		values[size] = value;
+		indices.put(gameObject, size);
+		size++;
+		return true;
+	}
+
+	/**
+	 * @return the removed value, or null if the object was not registered
+	 */
+	@SuppressWarnings("unchecked")
+	public T remove(GameObject gameObject)
+	{
+		Integer boxedIndex = indices.remove(gameObject);
+		if (boxedIndex == null)
+		{
+			return null;
+		}
+
+		int index = boxedIndex;
+		T removed = (T) values[index];
+		int last = size - 1;
+		if (index != last)
+		{
+			keys[index] = keys[last];
+			values[index] = values[last];
+			indices.put(keys[index], index);
+		}
+		keys[last] = null;
+		values[last] = null;
+		size = last;
+		return removed;
+	}
+
+	public void clear()
+	{
+		if (size == 0)
+		{
+			return;
+		}
+		indices.clear();
+		Arrays.fill(keys, 0, size, null);
+		Arrays.fill(values, 0, size, null);
+		size = 0;
+	}
+}
@@ -23,4 +23,14 @@ public final class GameObjectUtil
 		}
 		return -1;
 	}
+
+	public static int getAnimationFrame(GameObject gameObject)
+	{
+		Renderable renderable = gameObject.getRenderable();
+		if (renderable instanceof DynamicObject)
+		{
+			return ((DynamicObject) renderable).getAnimFrame();
+		}
+		return -1;
+	}
 }
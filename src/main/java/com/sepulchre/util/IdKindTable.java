@@ -0,0 +1,87 @@
+package com.sepulchre.util;
+
+import java.util.Collection;
+
+/**
+ * Dense id -> kind lookup covering the span between the lowest and highest registered id.
+ * <p>
+ * Unregistered ids resolve to {@link #NONE} after a single range check, so unrelated spawns
+ * are rejected without hashing or boxing.
+ */
+public final class IdKindTable
+{
+	public static final int NONE = 0;
+
+	private final int minId;
+	private final byte[] kinds;
+
+	private IdKindTable(int minId, byte[] kinds)
+	{
+		this.minId = minId;
+		this.kinds = kinds;
+	}
+
+	public int kindOf(int id)
+	{
+		int index = id - minId;
+		if (index < 0 || index >= kinds.length)
+		{
+			return NONE;
+		}
+		return kinds[index];
+	}
+
+	public static Builder builder()
+	{
+		return new Builder();
+	}
+
+	public static final class Builder
+	{
+		private final IntIntHashMap kinds = new IntIntHashMap(NONE);
+
+		private Builder() {}
+
+		public Builder add(int id, int kind)
+		{
+			if (kind <= NONE || kind > Byte.MAX_VALUE)
+			{
+				throw new IllegalArgumentException("kind out of range: " + kind);
+			}
+			kinds.put(id, kind);
+			return this;
+		}
+
+		public Builder add(Collection<Integer> ids, int kind)
+		{
+			for (int id : ids)
+			{
+				add(id, kind);
+			}
+			return this;
+		}
+
+		public IdKindTable build()
+		{
+			if (kinds.isEmpty())
+			{
+				return new IdKindTable(0, new byte[0]);
+			}
+
+			int min = Integer.MAX_VALUE;
+			int max = Integer.MIN_VALUE;
+			for (int i = 0; i < kinds.size(); i++)
+			{
+				min = Math.min(min, kinds.keyAt(i));
+				max = Math.max(max, kinds.keyAt(i));
+			}
+
+			byte[] table = new byte[max - min + 1];
+			for (int i = 0; i < kinds.size(); i++)
+			{
+				table[kinds.keyAt(i) - min] = (byte) kinds.valueAt(i);
+			}
+			return new IdKindTable(min, table);
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package com.sepulchre.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Open-addressing set of ints with dense key storage.
+ * <p>
+ * Keys are kept in a packed array so they can be walked by index without an iterator:
+ * {@code for (int i = 0; i < set.size(); i++) set.keyAt(i)}. Removing a key moves the last
+ * key into its slot, so removing while walking backwards is safe. {@code -1} is reserved.
+ */
+public final class IntHashSet
+{
+	private static final int FREE = -1;
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** Hash table of dense index + 1; 0 marks an empty bucket. */
+	private int[] buckets;
+	private int mask;
+	private int[] keys;
+	private int size;
+
+	public IntHashSet()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	public IntHashSet(int expectedSize)
+	{
+		int bucketCount = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+		buckets = new int[bucketCount];
+		mask = bucketCount - 1;
+		keys = new int[bucketCount >> 1];
+	}
+
+	public static IntHashSet of(Collection<Integer> values)
+	{
+		IntHashSet set = new IntHashSet(values.size());
+		for (int value : values)
+		{
+			set.add(value);
+		}
+		return set;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public int keyAt(int index)
+	{
+		return keys[index];
+	}
+
+	public boolean contains(int key)
+	{
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * @return the dense index of {@code key}, or -1 if absent
+	 */
+	public int indexOf(int key)
+	{
+		int bucket = hash(key) & mask;
+		int entry;
+		while ((entry = buckets[bucket]) != 0)
+		{
+			if (keys[entry - 1] == key)
+			{
+				return entry - 1;
+			}
+			bucket = (bucket + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return true if the key was not already present
+	 */
+	public boolean add(int key)
+	{
+		if (key == FREE)
+		{
+			throw new IllegalArgumentException("-1 is reserved");
+		}
+
+		if (indexOf(key) >= 0)
+		{
+			return false;
+		}
+
+		if ((size + 1) * 2 > buckets.length)
+		{
+			grow();
+		}
+
+		keys[size] = key;
+		insertBucket(key, size + 1);
+		size++;
+		return true;
+	}
+
+	/**
+	 * @return true if the key was present
+	 */
+	public boolean remove(int key)
+	{
+		int index = indexOf(key);
+		if (index < 0)
+		{
+			return false;
+		}
+		removeAt(index);
+		return true;
+	}
+
+	/**
+	 * Removes the key at {@code index}, moving the last key into its place.
+	 */
+	public void removeAt(int index)
+	{
+		deleteBucket(findBucket(index + 1, keys[index]));
+
+		int last = size - 1;
+		if (index != last)
+		{
+			int moved = keys[last];
+			buckets[findBucket(last + 1, moved)] = index + 1;
+			keys[index] = moved;
+		}
+		keys[last] = FREE;
+		size = last;
+	}
+
+	public void clear()
+	{
+		if (size == 0)
+		{
+			return;
+		}
+		Arrays.fill(buckets, 0);
+		Arrays.fill(keys, 0, size, FREE);
+		size = 0;
+	}
+
+	private int findBucket(int entry, int key)
+	{
+		int bucket = hash(key) & mask;
+		while (buckets[bucket] != entry)
+		{
+			bucket = (bucket + 1) & mask;
+		}
+		return bucket;
+	}
+
+	private void insertBucket(int key, int entry)
+	{
+		int bucket = hash(key) & mask;
+		while (buckets[bucket] != 0)
+		{
+			bucket = (bucket + 1) & mask;
+		}
+		buckets[bucket] = entry;
+	}
+
+	private void deleteBucket(int gap)
+	{
+		int next = (gap + 1) & mask;
+		int entry;
+		while ((entry = buckets[next]) != 0)
+		{
+			int home = hash(keys[entry - 1]) & mask;
+			if (((next - home) & mask) >= ((next - gap) & mask))
+			{
+				buckets[gap] = entry;
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		buckets[gap] = 0;
+	}
+
+	private void grow()
+	{
+		int bucketCount = buckets.length << 1;
+		buckets = new int[bucketCount];
+		mask = bucketCount - 1;
+		keys = Arrays.copyOf(keys, bucketCount >> 1);
+		for (int i = 0; i < size; i++)
+		{
+			insertBucket(keys[i], i + 1);
+		}
+	}
+
+	private static int hash(int key)
+	{
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,102 @@
+package com.sepulchre.util;
+
+import java.util.Arrays;
+
+/**
+ * Int-to-int map backed by an {@link IntHashSet} of keys with a parallel value array.
+ * <p>
+ * Entries are walked by dense index like the key set, and share its removal rule: removing an
+ * entry moves the last entry into its slot, so countdowns can be decremented and expired in a
+ * single backwards pass without boxing or iterator allocation.
+ */
+public final class IntIntHashMap
+{
+	private final IntHashSet keys;
+	private int[] values;
+	private final int missingValue;
+
+	public IntIntHashMap(int missingValue)
+	{
+		this.keys = new IntHashSet();
+		this.values = new int[8];
+		this.missingValue = missingValue;
+	}
+
+	public int size()
+	{
+		return keys.size();
+	}
+
+	public boolean isEmpty()
+	{
+		return keys.isEmpty();
+	}
+
+	public int keyAt(int index)
+	{
+		return keys.keyAt(index);
+	}
+
+	public int valueAt(int index)
+	{
+		return values[index];
+	}
+
+	public void setValueAt(int index, int value)
+	{
+		values[index] = value;
+	}
+
+	public boolean containsKey(int key)
+	{
+		return keys.contains(key);
+	}
+
+	public int get(int key)
+	{
+		int index = keys.indexOf(key);
+		return index >= 0 ? values[index] : missingValue;
+	}
+
+	public void put(int key, int value)
+	{
+		int index = keys.indexOf(key);
+		if (index < 0)
+		{
+			keys.add(key);
+			index = keys.size() - 1;
+			if (index >= values.length)
+			{
+				values = Arrays.copyOf(values, values.length << 1);
+			}
+		}
+		values[index] = value;
+	}
+
+	/**
+	 * @return the removed value, or the missing value if the key was absent
+	 */
+	public int remove(int key)
+	{
+		int index = keys.indexOf(key);
+		if (index < 0)
+		{
+			return missingValue;
+		}
+		int value = values[index];
+		removeAt(index);
+		return value;
+	}
+
+	public void removeAt(int index)
+	{
+		int last = keys.size() - 1;
+		keys.removeAt(index);
+		values[index] = values[last];
+	}
+
+	public void clear()
+	{
+		keys.clear();
+	}
+}
@@ -0,0 +1,102 @@
+package com.sepulchre.util;
+
+import java.util.Arrays;
+
+/**
+ * Static tile offset tables for statue fire lanes, indexed by orientation bucket.
+ * Orientations are in the client's 2048-unit space; each bucket covers the 512 units centred on
+ * south, west, north and east respectively.
+ */
+public final class LaneTables
+{
+	private LaneTables() {}
+
+	public static final int SOUTH = 0;
+	public static final int WEST = 1;
+	public static final int NORTH = 2;
+	public static final int EAST = 3;
+
+	/**
+	 * Wizard flame tiles as (dx, dy) pairs from the statue's world location: three tiles starting
+	 * one out when facing south or west and two out when facing north or east, with north and west
+	 * lanes shifted one tile to the side.
+	 */
+	private static final int[][] WIZARD_FIRE_OFFSETS = {
+		{0, -1, 0, -2, 0, -3},
+		{-1, 1, -2, 1, -3, 1},
+		{1, 2, 1, 3, 1, 4},
+		{2, 0, 3, 0, 4, 0},
+	};
+
+	/**
+	 * Crossbow bolt lane as (dx, dy) pairs from the statue's world location: the first eight
+	 * tiles straight out in the facing direction. Bolts fly on until they hit a wall, so this is
+	 * the stretch a player near the statue needs to see, cut short by {@link #clipLane} where a
+	 * wall comes first.
+	 */
+	private static final int[][] CROSSBOW_LANE_OFFSETS = {
+		{0, -1, 0, -2, 0, -3, 0, -4, 0, -5, 0, -6, 0, -7, 0, -8},
+		{-1, 0, -2, 0, -3, 0, -4, 0, -5, 0, -6, 0, -7, 0, -8, 0},
+		{0, 1, 0, 2, 0, 3, 0, 4, 0, 5, 0, 6, 0, 7, 0, 8},
+		{1, 0, 2, 0, 3, 0, 4, 0, 5, 0, 6, 0, 7, 0, 8, 0},
+	};
+
+	public static int orientationBucket(int orientation)
+	{
+		return ((orientation + 256) & 2047) >> 9;
+	}
+
+	/**
+	 * @return packed tiles covered by the flame of a wizard statue at {@code origin}
+	 */
+	public static int[] wizardFireTiles(int origin, int orientation)
+	{
+		return offsetTiles(origin, WIZARD_FIRE_OFFSETS[orientationBucket(orientation)]);
+	}
+
+	/**
+	 * @return packed tiles crossed by the bolt of a crossbow statue at {@code origin}
+	 */
+	public static int[] crossbowLaneTiles(int origin, int orientation)
+	{
+		return offsetTiles(origin, CROSSBOW_LANE_OFFSETS[orientationBucket(orientation)]);
+	}
+
+	/**
+	 * @param lane tiles leading out from {@code origin} one unit step at a time
+	 * @return the tiles of {@code lane} before the first step a projectile cannot make, into a
+	 * blocked tile or across a wall, judged against the scene's collision {@code flags} as
+	 * {@link ProjectileTracker} judges its lanes; {@code lane} itself when nothing blocks it
+	 */
+	public static int[] clipLane(int origin, int[] lane, int[][] flags, int baseX, int baseY)
+	{
+		int x = TileKey.getX(origin);
+		int y = TileKey.getY(origin);
+		for (int i = 0; i < lane.length; i++)
+		{
+			int nextX = TileKey.getX(lane[i]);
+			int nextY = TileKey.getY(lane[i]);
+			if (ProjectileTracker.isStepBlocked(flags, x - baseX, y - baseY, nextX - x, nextY - y))
+			{
+				return Arrays.copyOf(lane, i);
+			}
+			x = nextX;
+			y = nextY;
+		}
+		return lane;
+	}
+
+	static int[] offsetTiles(int origin, int[] offsets)
+	{
+		int x = TileKey.getX(origin);
+		int y = TileKey.getY(origin);
+		int plane = TileKey.getPlane(origin);
+
+		int[] tiles = new int[offsets.length / 2];
+		for (int i = 0; i < tiles.length; i++)
+		{
+			tiles[i] = TileKey.pack(x + offsets[2 * i], y + offsets[2 * i + 1], plane);
+		}
+		return tiles;
+	}
+}
@@ -0,0 +1,29 @@
+package com.sepulchre.util;
+
+import net.runelite.api.Constants;
+
+import java.util.function.Supplier;
+
+/**
+ * One value per plane, so per-plane hazards can be looked up without filtering on plane.
+ */
+public final class PerPlane<T>
+{
+	public static final int PLANES = Constants.MAX_Z;
+
+	private final Object[] values = new Object[PLANES];
+
+	public PerPlane(Supplier<T> factory)
+	{
+		for (int plane = 0; plane < PLANES; plane++)
+		{
+			values[plane] = factory.get();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(int plane)
+	{
+		return (T) values[plane];
+	}
+}
@@ -0,0 +1,455 @@
+package com.sepulchre.util;
+
+import net.runelite.api.Client;
+import net.runelite.api.CollisionData;
+import net.runelite.api.CollisionDataFlag;
+import net.runelite.api.Constants;
+import net.runelite.api.NPC;
+import net.runelite.api.NPCComposition;
+
+import java.util.Arrays;
+
+/**
+ * Bolt or sword NPCs on one plane, with the last few tiles each has stood on and the lane of
+ * tiles it is expected to cover over the next {@link #LOOKAHEAD_TICKS} ticks.
+ * <p>
+ * Every tracked NPC owns a slot in a set of parallel primitive arrays: a {@link #HISTORY}-long
+ * ring of packed tiles sampled once per tick, the inferred per-tick step and the predicted lane.
+ * Slots are walked by dense index like {@link GameObjectRegistry}, and removal moves the last
+ * slot into the freed one, so {@link #update(Client)} never allocates.
+ * <p>
+ * An NPC's tile and lane tiles are the south-west corner of its footprint, which is
+ * {@link #getSize(int)} tiles wide. Every tile an NPC currently covers is kept in the shared
+ * {@link DangerGrid}.
+ */
+public final class ProjectileTracker
+{
+	public static final int HISTORY = 4;
+	public static final int LOOKAHEAD_TICKS = 3;
+
+	/**
+	 * Largest per-tick move accepted as travel; anything longer is a respawn or teleport and
+	 * starts the history over.
+	 */
+	private static final int MAX_STEP = 2;
+	private static final int MAX_LANE = LOOKAHEAD_TICKS * MAX_STEP;
+
+	private static final int BLOCKED = CollisionDataFlag.BLOCK_MOVEMENT_FULL
+		| CollisionDataFlag.BLOCK_MOVEMENT_OBJECT
+		| CollisionDataFlag.BLOCK_MOVEMENT_FLOOR;
+
+	private final DangerGrid dangerGrid;
+
+	/**
+	 * NPC index -> slot.
+	 */
+	private final IntIntHashMap slots = new IntIntHashMap(-1);
+	private NPC[] npcs = new NPC[16];
+	private int size;
+
+	private int[] history = new int[16 * HISTORY];
+	private int[] head = new int[16];
+	private int[] samples = new int[16];
+	private int[] sizes = new int[16];
+
+	private int[] stepX = new int[16];
+	private int[] stepY = new int[16];
+
+	private int[] lane = new int[16 * MAX_LANE];
+	private int[] laneTicks = new int[16 * MAX_LANE];
+	private int[] laneLength = new int[16];
+
+	public ProjectileTracker(DangerGrid dangerGrid)
+	{
+		this.dangerGrid = dangerGrid;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public NPC getNpc(int slot)
+	{
+		return npcs[slot];
+	}
+
+	/**
+	 * @return the packed tile sampled on the last tick
+	 */
+	public int getTile(int slot)
+	{
+		return history[slot * HISTORY + head[slot]];
+	}
+
+	/**
+	 * @return the width of the NPC's footprint in tiles
+	 */
+	public int getSize(int slot)
+	{
+		return sizes[slot];
+	}
+
+	/**
+	 * @return tiles moved along x per tick, or 0 when the NPC is not moving along x
+	 */
+	public int getStepX(int slot)
+	{
+		return stepX[slot];
+	}
+
+	public int getStepY(int slot)
+	{
+		return stepY[slot];
+	}
+
+	public int getLaneLength(int slot)
+	{
+		return laneLength[slot];
+	}
+
+	public int getLaneTile(int slot, int index)
+	{
+		return lane[slot * MAX_LANE + index];
+	}
+
+	/**
+	 * @return the tick, from 1 to {@link #LOOKAHEAD_TICKS}, on which the NPC is expected to cover
+	 * the lane tile
+	 */
+	public int getLaneTicksAhead(int slot, int index)
+	{
+		return laneTicks[slot * MAX_LANE + index];
+	}
+
+	/**
+	 * @return false if the NPC is already tracked
+	 */
+	public boolean add(NPC npc)
+	{
+		if (slots.containsKey(npc.getIndex()))
+		{
+			return false;
+		}
+
+		if (size == npcs.length)
+		{
+			grow();
+		}
+
+		int slot = size++;
+		int tile = TileKey.pack(npc.getWorldLocation());
+		npcs[slot] = npc;
+		slots.put(npc.getIndex(), slot);
+		history[slot * HISTORY] = tile;
+		head[slot] = 0;
+		samples[slot] = 1;
+		sizes[slot] = footprintSize(npc);
+		stepX[slot] = 0;
+		stepY[slot] = 0;
+		laneLength[slot] = 0;
+		markFootprint(tile, sizes[slot], true);
+		return true;
+	}
+
+	/**
+	 * @return false if the NPC was not tracked
+	 */
+	public boolean remove(NPC npc)
+	{
+		int slot = slots.remove(npc.getIndex());
+		if (slot == -1)
+		{
+			return false;
+		}
+
+		markFootprint(getTile(slot), sizes[slot], false);
+
+		int last = size - 1;
+		if (slot != last)
+		{
+			move(last, slot);
+			slots.put(npcs[slot].getIndex(), slot);
+		}
+		npcs[last] = null;
+		size = last;
+		return true;
+	}
+
+	/**
+	 * Forgets every NPC without touching the danger grid, which the owner clears alongside.
+	 */
+	public void clear()
+	{
+		slots.clear();
+		Arrays.fill(npcs, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * Samples every NPC's tile, moves its danger grid entries when it has moved, and re-derives its
+	 * step and lane. Called once per game tick.
+	 */
+	public void update(Client client)
+	{
+		if (size == 0)
+		{
+			return;
+		}
+
+		int plane = TileKey.getPlane(getTile(0));
+		CollisionData[] maps = client.getCollisionMaps();
+		int[][] flags = maps != null && plane < maps.length && maps[plane] != null ? maps[plane].getFlags() : null;
+		int baseX = client.getBaseX();
+		int baseY = client.getBaseY();
+
+		for (int slot = 0; slot < size; slot++)
+		{
+			int previous = getTile(slot);
+			int tile = TileKey.pack(npcs[slot].getWorldLocation());
+			if (tile != previous)
+			{
+				markFootprint(previous, sizes[slot], false);
+				markFootprint(tile, sizes[slot], true);
+			}
+
+			head[slot] = (head[slot] + 1) % HISTORY;
+			history[slot * HISTORY + head[slot]] = tile;
+			samples[slot] = Math.min(samples[slot] + 1, HISTORY);
+
+			inferStep(slot);
+			predictLane(slot, flags, baseX, baseY);
+		}
+	}
+
+	/**
+	 * Averages the per-tick moves back from the newest sample for as long as they keep one
+	 * direction, so a bolt bouncing off a wall is judged on its travel since the bounce.
+	 */
+	private void inferStep(int slot)
+	{
+		int base = slot * HISTORY;
+		int newer = history[base + head[slot]];
+		int totalX = 0;
+		int totalY = 0;
+		int signX = 0;
+		int signY = 0;
+		int span = 0;
+
+		for (int age = 1; age < samples[slot]; age++)
+		{
+			int older = history[base + (head[slot] - age + HISTORY) % HISTORY];
+			int dx = TileKey.getX(newer) - TileKey.getX(older);
+			int dy = TileKey.getY(newer) - TileKey.getY(older);
+			if (Math.abs(dx) > MAX_STEP || Math.abs(dy) > MAX_STEP || TileKey.getPlane(newer) != TileKey.getPlane(older))
+			{
+				break;
+			}
+			if ((signX != 0 && Integer.signum(dx) == -signX) || (signY != 0 && Integer.signum(dy) == -signY))
+			{
+				break;
+			}
+
+			if (dx != 0)
+			{
+				signX = Integer.signum(dx);
+			}
+			if (dy != 0)
+			{
+				signY = Integer.signum(dy);
+			}
+			totalX += dx;
+			totalY += dy;
+			span++;
+			newer = older;
+		}
+
+		stepX[slot] = span == 0 ? 0 : divideRounded(totalX, span);
+		stepY[slot] = span == 0 ? 0 : divideRounded(totalY, span);
+	}
+
+	/**
+	 * Walks the inferred step forward tile by tile, stopping at the first step the NPC could not
+	 * make.
+	 */
+	private void predictLane(int slot, int[][] flags, int baseX, int baseY)
+	{
+		laneLength[slot] = 0;
+		int dx = stepX[slot];
+		int dy = stepY[slot];
+		if (dx == 0 && dy == 0)
+		{
+			return;
+		}
+
+		int tile = getTile(slot);
+		int x = TileKey.getX(tile);
+		int y = TileKey.getY(tile);
+		int plane = TileKey.getPlane(tile);
+		int size = sizes[slot];
+		int unitX = Integer.signum(dx);
+		int unitY = Integer.signum(dy);
+		int tilesPerTick = Math.max(Math.abs(dx), Math.abs(dy));
+
+		int base = slot * MAX_LANE;
+		int length = 0;
+		for (int ticksAhead = 1; ticksAhead <= LOOKAHEAD_TICKS; ticksAhead++)
+		{
+			for (int i = 0; i < tilesPerTick; i++)
+			{
+				if (isFootprintStepBlocked(flags, x - baseX, y - baseY, size, unitX, unitY))
+				{
+					laneLength[slot] = length;
+					return;
+				}
+				x += unitX;
+				y += unitY;
+
+				lane[base + length] = TileKey.pack(x, y, plane);
+				laneTicks[base + length] = ticksAhead;
+				length++;
+			}
+		}
+		laneLength[slot] = length;
+	}
+
+	/**
+	 * @return whether any tile on the leading edge of a {@code size}-wide footprint, with its
+	 * south-west corner on the scene tile, is blocked from making the unit step
+	 */
+	private static boolean isFootprintStepBlocked(int[][] flags, int sceneX, int sceneY, int size, int dx, int dy)
+	{
+		for (int i = 0; i < size; i++)
+		{
+			for (int j = 0; j < size; j++)
+			{
+				int aheadX = i + dx;
+				int aheadY = j + dy;
+				if (aheadX >= 0 && aheadX < size && aheadY >= 0 && aheadY < size)
+				{
+					continue;
+				}
+				if (isStepBlocked(flags, sceneX + i, sceneY + j, dx, dy))
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return whether the unit step ({@code dx}, {@code dy}) from a scene tile lands on a blocked
+	 * tile or crosses a wall. A diagonal step needs both of the L-shaped cardinal routes to be
+	 * open, as {@link com.sepulchre.path.SafePathPlanner} judges a diagonal walk.
+	 */
+	static boolean isStepBlocked(int[][] flags, int sceneX, int sceneY, int dx, int dy)
+	{
+		if (dx == 0 || dy == 0)
+		{
+			return isCardinalStepBlocked(flags, sceneX, sceneY, dx, dy);
+		}
+		return isCardinalStepBlocked(flags, sceneX, sceneY, dx, 0)
+			|| isCardinalStepBlocked(flags, sceneX, sceneY, 0, dy)
+			|| isCardinalStepBlocked(flags, sceneX + dx, sceneY, 0, dy)
+			|| isCardinalStepBlocked(flags, sceneX, sceneY + dy, dx, 0);
+	}
+
+	private static boolean isCardinalStepBlocked(int[][] flags, int sceneX, int sceneY, int dx, int dy)
+	{
+		if (isBlocked(flags, sceneX + dx, sceneY + dy))
+		{
+			return true;
+		}
+		if (flags == null || sceneX < 0 || sceneY < 0 || sceneX >= flags.length || sceneY >= flags[sceneX].length)
+		{
+			return false;
+		}
+
+		int wall = dx > 0 ? CollisionDataFlag.BLOCK_MOVEMENT_EAST
+			: dx < 0 ? CollisionDataFlag.BLOCK_MOVEMENT_WEST
+			: dy > 0 ? CollisionDataFlag.BLOCK_MOVEMENT_NORTH
+			: CollisionDataFlag.BLOCK_MOVEMENT_SOUTH;
+		return (flags[sceneX][sceneY] & wall) != 0;
+	}
+
+	private static boolean isBlocked(int[][] flags, int sceneX, int sceneY)
+	{
+		if (sceneX < 0 || sceneY < 0 || sceneX >= Constants.SCENE_SIZE || sceneY >= Constants.SCENE_SIZE)
+		{
+			return true;
+		}
+		if (flags == null || sceneX >= flags.length || sceneY >= flags[sceneX].length)
+		{
+			return false;
+		}
+		return (flags[sceneX][sceneY] & BLOCKED) != 0;
+	}
+
+	private static int footprintSize(NPC npc)
+	{
+		NPCComposition composition = npc.getTransformedComposition();
+		return composition != null ? Math.max(1, composition.getSize()) : 1;
+	}
+
+	private void markFootprint(int tile, int size, boolean dangerous)
+	{
+		int x = TileKey.getX(tile);
+		int y = TileKey.getY(tile);
+		int plane = TileKey.getPlane(tile);
+		for (int dx = 0; dx < size; dx++)
+		{
+			for (int dy = 0; dy < size; dy++)
+			{
+				if (dangerous)
+				{
+					dangerGrid.add(TileKey.pack(x + dx, y + dy, plane));
+				}
+				else
+				{
+					dangerGrid.remove(TileKey.pack(x + dx, y + dy, plane));
+				}
+			}
+		}
+	}
+
+	private static int divideRounded(int value, int divisor)
+	{
+		int rounded = (Math.abs(value) * 2 + divisor) / (divisor * 2);
+		return value < 0 ? -rounded : rounded;
+	}
+
+	private void move(int from, int to)
+	{
+		npcs[to] = npcs[from];
+		System.arraycopy(history, from * HISTORY, history, to * HISTORY, HISTORY);
+		head[to] = head[from];
+		samples[to] = samples[from];
+		sizes[to] = sizes[from];
+		stepX[to] = stepX[from];
+		stepY[to] = stepY[from];
+		System.arraycopy(lane, from * MAX_LANE, lane, to * MAX_LANE, MAX_LANE);
+		System.arraycopy(laneTicks, from * MAX_LANE, laneTicks, to * MAX_LANE, MAX_LANE);
+		laneLength[to] = laneLength[from];
+	}
+
+	private void grow()
+	{
+		int capacity = npcs.length << 1;
+		npcs = Arrays.copyOf(npcs, capacity);
+		history = Arrays.copyOf(history, capacity * HISTORY);
+		head = Arrays.copyOf(head, capacity);
+		samples = Arrays.copyOf(samples, capacity);
+		sizes = Arrays.copyOf(sizes, capacity);
+		stepX = Arrays.copyOf(stepX, capacity);
+		stepY = Arrays.copyOf(stepY, capacity);
+		lane = Arrays.copyOf(lane, capacity * MAX_LANE);
+		laneTicks = Arrays.copyOf(laneTicks, capacity * MAX_LANE);
+		laneLength = Arrays.copyOf(laneLength, capacity);
+	}
+}
@@ -6,18 +6,16 @@ public final class SepulchreConstants
 {
 	private SepulchreConstants() {}
 
+	public static final Set<Integer> SEPULCHRE_REGION_IDS = Set.of(
+		8797, 9051, 9052, 9053, 9054, 9309, 9563, 9565, 9821, 10074, 10075, 10077
+	);
+
 	public static final Set<Integer> CROSSBOW_STATUE_IDS = Set.of(38444, 38445, 38446);
 
 	public static final int CROSSBOW_ANIM_CHARGING = 8682;
 	public static final int CROSSBOW_ANIM_FIRING_1 = 8683;
 	public static final int CROSSBOW_ANIM_FIRING_2 = 8684;
 	public static final int CROSSBOW_ANIM_FIRING_3 = 8685;
-	public static final Set<Integer> CROSSBOW_DANGER_ANIMS = Set.of(
-		CROSSBOW_ANIM_CHARGING,
-		CROSSBOW_ANIM_FIRING_1,
-		CROSSBOW_ANIM_FIRING_2,
-		CROSSBOW_ANIM_FIRING_3
-	);
 
 	public static final int PORTAL_YELLOW_ID = 38447;
 	public static final int PORTAL_BLUE_ID = 38448;
@@ -38,4 +36,23 @@ public final class SepulchreConstants
 	public static final Set<Integer> SWORD_NULL_NPC_IDS = Set.of(9669, 9670, 9671);
 
 	public static final int LIGHTNING_GRAPHICS_ID = 1796;
+
+	public static final int KIND_CROSSBOW_STATUE = 1;
+	public static final int KIND_WIZARD_STATUE = 2;
+	public static final int KIND_PORTAL_YELLOW = 3;
+	public static final int KIND_PORTAL_BLUE = 4;
+	public static final int KIND_BOLT_NPC = 5;
+	public static final int KIND_SWORD_NPC = 6;
+
+	public static final IdKindTable OBJECT_KINDS = IdKindTable.builder()
+		.add(CROSSBOW_STATUE_IDS, KIND_CROSSBOW_STATUE)
+		.add(WIZARD_FLAME_OBJECT_IDS, KIND_WIZARD_STATUE)
+		.add(PORTAL_YELLOW_ID, KIND_PORTAL_YELLOW)
+		.add(PORTAL_BLUE_ID, KIND_PORTAL_BLUE)
+		.build();
+
+	public static final IdKindTable NPC_KINDS = IdKindTable.builder()
+		.add(BOLT_NULL_NPC_IDS, KIND_BOLT_NPC)
+		.add(SWORD_NULL_NPC_IDS, KIND_SWORD_NPC)
+		.build();
 }
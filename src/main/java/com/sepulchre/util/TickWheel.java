@@ -0,0 +1,125 @@
+package com.sepulchre.util;
+
+import java.util.Arrays;
+
+/**
+ * Hashed timing wheel over game ticks.
+ * <p>
+ * Timers are bucketed by {@code deadline & (slots - 1)}, so advancing a tick only visits the
+ * timers sharing the current bucket instead of every live countdown. Timers further out than
+ * one revolution simply stay in their bucket until their deadline comes around.
+ * <p>
+ * There is no cancellation: callers that re-arm a timer record the latest deadline themselves
+ * and ignore expirations that no longer match it.
+ */
+public final class TickWheel
+{
+	public interface ExpiryListener
+	{
+		void onExpired(int kind, int payload);
+	}
+
+	private static final int INITIAL_SLOT_CAPACITY = 8;
+
+	private final int mask;
+	private final int[][] deadlines;
+	private final int[][] kinds;
+	private final int[][] payloads;
+	private final int[] sizes;
+
+	private int currentTick;
+
+	public TickWheel(int slotCount)
+	{
+		if (slotCount <= 0 || Integer.bitCount(slotCount) != 1)
+		{
+			throw new IllegalArgumentException("slot count must be a power of two: " + slotCount);
+		}
+
+		mask = slotCount - 1;
+		deadlines = new int[slotCount][INITIAL_SLOT_CAPACITY];
+		kinds = new int[slotCount][INITIAL_SLOT_CAPACITY];
+		payloads = new int[slotCount][INITIAL_SLOT_CAPACITY];
+		sizes = new int[slotCount];
+	}
+
+	public int getCurrentTick()
+	{
+		return currentTick;
+	}
+
+	/**
+	 * @return the tick on which the timer will expire
+	 */
+	public int schedule(int delayTicks, int kind, int payload)
+	{
+		if (delayTicks < 1)
+		{
+			throw new IllegalArgumentException("delay must be at least one tick: " + delayTicks);
+		}
+
+		int deadline = currentTick + delayTicks;
+		int slot = deadline & mask;
+		int size = sizes[slot];
+		if (size == deadlines[slot].length)
+		{
+			deadlines[slot] = Arrays.copyOf(deadlines[slot], size << 1);
+			kinds[slot] = Arrays.copyOf(kinds[slot], size << 1);
+			payloads[slot] = Arrays.copyOf(payloads[slot], size << 1);
+		}
+
+		deadlines[slot][size] = deadline;
+		kinds[slot][size] = kind;
+		payloads[slot][size] = payload;
+		sizes[slot] = size + 1;
+		return deadline;
+	}
+
+	/**
+	 * Moves to the next tick and delivers every timer that expires on it, in scheduling order.
+	 */
+	public void advance(ExpiryListener listener)
+	{
+		int now = ++currentTick;
+		int slot = now & mask;
+		int count = sizes[slot];
+		int kept = 0;
+
+		for (int i = 0; i < count; i++)
+		{
+			// re-read the arrays, a listener may have grown this slot
+			if (deadlines[slot][i] == now)
+			{
+				listener.onExpired(kinds[slot][i], payloads[slot][i]);
+			}
+			else
+			{
+				move(slot, i, kept++);
+			}
+		}
+
+		// timers scheduled into this slot by a listener were appended after the original entries
+		int size = sizes[slot];
+		for (int i = count; i < size; i++)
+		{
+			move(slot, i, kept++);
+		}
+		sizes[slot] = kept;
+	}
+
+	public void clear()
+	{
+		Arrays.fill(sizes, 0);
+		currentTick = 0;
+	}
+
+	private void move(int slot, int from, int to)
+	{
+		if (from != to)
+		{
+			deadlines[slot][to] = deadlines[slot][from];
+			kinds[slot][to] = kinds[slot][from];
+			payloads[slot][to] = payloads[slot][from];
+		}
+	}
+}
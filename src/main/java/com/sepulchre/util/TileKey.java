@@ -0,0 +1,60 @@
+package com.sepulchre.util;
+
+import net.runelite.api.Client;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Packs a world tile (x, y, plane) into a single non-negative int so tile state can live in
+ * primitive collections. x and y use 14 bits each, plane uses the 2 bits above them.
+ */
+public final class TileKey
+{
+	private TileKey() {}
+
+	private static final int COORD_BITS = 14;
+	private static final int COORD_MASK = (1 << COORD_BITS) - 1;
+	private static final int PLANE_SHIFT = COORD_BITS * 2;
+
+	public static int pack(int x, int y, int plane)
+	{
+		return (plane << PLANE_SHIFT) | ((x & COORD_MASK) << COORD_BITS) | (y & COORD_MASK);
+	}
+
+	public static int pack(WorldPoint worldPoint)
+	{
+		return pack(worldPoint.getX(), worldPoint.getY(), worldPoint.getPlane());
+	}
+
+	/**
+	 * Equivalent to packing {@link WorldPoint#fromLocal(Client, LocalPoint)} without allocating the point.
+	 */
+	public static int fromLocal(Client client, LocalPoint localPoint)
+	{
+		return pack(
+			client.getBaseX() + localPoint.getSceneX(),
+			client.getBaseY() + localPoint.getSceneY(),
+			client.getPlane()
+		);
+	}
+
+	public static int getX(int tile)
+	{
+		return (tile >>> COORD_BITS) & COORD_MASK;
+	}
+
+	public static int getY(int tile)
+	{
+		return tile & COORD_MASK;
+	}
+
+	public static int getPlane(int tile)
+	{
+		return tile >>> PLANE_SHIFT;
+	}
+
+	public static WorldPoint toWorldPoint(int tile)
+	{
+		return new WorldPoint(getX(tile), getY(tile), getPlane(tile));
+	}
+}
@@ -0,0 +1,226 @@
+package com.sepulchre;
+
+import com.sepulchre.handler.ObstacleHandler;
+import com.sepulchre.metrics.HotPathMetrics;
+import com.sepulchre.overlay.SepulchreSceneOverlay;
+import com.sepulchre.stub.SyntheticFloor;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import net.runelite.api.Client;
+import net.runelite.api.Constants;
+import net.runelite.api.GameObject;
+import net.runelite.api.Perspective;
+import net.runelite.api.coords.LocalPoint;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Steady-state allocation ceilings for the handler tick and the overlay frame, measured with
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} over a {@link SyntheticFloor}.
+ * <p>
+ * A still camera with no ticks only replays the display list and must allocate next to nothing.
+ * Frames that project are budgeted at what RuneLite's {@link Perspective} allocates per
+ * projection, measured against the same stub client, times the projections the scenario is
+ * expected to make, plus a small margin for the overlay's own work. The expected counts follow
+ * from the floor's contents, not from what the overlay did, so a frame that starts projecting
+ * more fails rather than earning itself a bigger budget.
+ */
+public class AllocationBudgetTest
+{
+	private static final int WARMUP_ITERATIONS = 5_000;
+	private static final int MEASURED_ITERATIONS = 2_000;
+	private static final int FRAMES_PER_TICK = 30;
+
+	private static final long TICK_BUDGET_BYTES = 256;
+	private static final long SPAWN_BUDGET_BYTES = 8;
+	private static final long STILL_REPLAY_BUDGET_BYTES = 256;
+	private static final long FRAME_MARGIN_BYTES = 4 * 1024;
+
+	private static final int WIZARDS = 20;
+	private static final int CROSSBOWS = 8;
+	private static final int PROJECTILES = 24;
+
+	/**
+	 * The projectile NPCs are projected live every frame; the wizard counters are projected again
+	 * when a tick re-records the display list, which is less than one per frame.
+	 */
+	private static final int STILL_FRAME_PROJECTIONS = PROJECTILES + 1;
+
+	/**
+	 * A moving camera invalidates every cache, so each frame projects every tile a hazard can
+	 * cover: three flame tiles and a counter per wizard, the statue and an eight tile lane per
+	 * crossbow, the NPC and up to six lane tiles per projectile, and both portals; the lightning
+	 * tiles are added from the floor.
+	 */
+	private static final int PANNING_FRAME_PROJECTIONS = WIZARDS * 4 + CROSSBOWS * 9 + PROJECTILES * 7 + 2;
+
+	private static final int CENTRE = Constants.SCENE_SIZE / 2;
+
+	private static final class FrameCost
+	{
+		private final long bytes;
+		private final long projections;
+
+		private FrameCost(long bytes, long projections)
+		{
+			this.bytes = bytes;
+			this.projections = projections;
+		}
+	}
+
+	private com.sun.management.ThreadMXBean threads;
+	private SyntheticFloor floor;
+	private ObstacleHandler handler;
+
+	@Before
+	public void setUp()
+	{
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		floor = new SyntheticFloor(WIZARDS, CROSSBOWS, PROJECTILES);
+		handler = floor.getHandler();
+		floor.spawnAll();
+	}
+
+	@Test
+	public void gameTick()
+	{
+		long perTick = bytesPerIteration(floor::tick);
+		assertBudget("game tick", perTick, TICK_BUDGET_BYTES);
+	}
+
+	@Test
+	public void respawnOfKnownObjects()
+	{
+		List<GameObject> burst = floor.sceneLoadBurst(6000, 2);
+		long perBurst = bytesPerIteration(() ->
+		{
+			for (int i = 0; i < burst.size(); i++)
+			{
+				handler.onGameObjectSpawned(burst.get(i));
+			}
+		});
+		assertBudget("spawn", perBurst / burst.size(), SPAWN_BUDGET_BYTES);
+	}
+
+	@Test
+	public void stillCameraReplay()
+	{
+		// Projectile NPCs are projected live every frame, so leave them out; what remains is the
+		// display list replay and the cached crossbow shapes.
+		SyntheticFloor still = new SyntheticFloor(WIZARDS, CROSSBOWS, 0);
+		still.spawnAll();
+		still.tick();
+
+		FrameCost cost = frameCost(still, false, false);
+		assertEquals("projections per still frame", 0, cost.projections);
+		assertBudget("still camera replay", cost.bytes, STILL_REPLAY_BUDGET_BYTES);
+	}
+
+	@Test
+	public void stillCameraFrame()
+	{
+		assertFrameBudget("still camera frame", frameCost(floor, true, false), STILL_FRAME_PROJECTIONS);
+	}
+
+	@Test
+	public void panningCameraFrame()
+	{
+		assertFrameBudget("panning camera frame", frameCost(floor, true, true),
+			PANNING_FRAME_PROJECTIONS + floor.getLightning().size());
+	}
+
+	private void assertFrameBudget(String what, FrameCost cost, int expectedProjections)
+	{
+		assertTrue(what + " made " + cost.projections + " projections, expected at most " + expectedProjections,
+			cost.projections <= expectedProjections);
+		long budget = expectedProjections * bytesPerProjection() + FRAME_MARGIN_BYTES;
+		assertBudget(what, cost.bytes, budget);
+	}
+
+	/**
+	 * What one tile projection allocates, the way the tile polygon cache projects.
+	 */
+	private long bytesPerProjection()
+	{
+		Client client = floor.getClient();
+		int x = SyntheticFloor.BASE_X + CENTRE;
+		int y = SyntheticFloor.BASE_Y + CENTRE;
+		assertNotNull(Perspective.getCanvasTilePoly(client, LocalPoint.fromWorld(client, x, y)));
+
+		Polygon[] sink = new Polygon[1];
+		return bytesPerIteration(() -> sink[0] = Perspective.getCanvasTilePoly(client, LocalPoint.fromWorld(client, x, y)));
+	}
+
+	private FrameCost frameCost(SyntheticFloor target, boolean tick, boolean panCamera)
+	{
+		SepulchreSceneOverlay overlay = target.overlay();
+		HotPathMetrics metrics = target.getMetrics();
+		BufferedImage image = new BufferedImage(765, 503, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = image.createGraphics();
+		int centre = CENTRE * Perspective.LOCAL_TILE_SIZE;
+		int[] frame = {0};
+		long[] projectionsBefore = {0};
+
+		try
+		{
+			long bytes = bytesPerIteration(() ->
+			{
+				int n = ++frame[0];
+				if (n == WARMUP_ITERATIONS + 1)
+				{
+					projectionsBefore[0] = metrics.getCount(HotPathMetrics.Counter.PROJECTIONS);
+				}
+				if (tick && n % FRAMES_PER_TICK == 0)
+				{
+					target.tick();
+				}
+				if (panCamera)
+				{
+					target.setCamera(centre, centre - 6 * Perspective.LOCAL_TILE_SIZE, -1200, 383, (n * 3) & 2047);
+				}
+				overlay.render(graphics);
+			});
+			long projections = metrics.getCount(HotPathMetrics.Counter.PROJECTIONS) - projectionsBefore[0];
+			return new FrameCost(bytes, (projections + MEASURED_ITERATIONS - 1) / MEASURED_ITERATIONS);
+		}
+		finally
+		{
+			graphics.dispose();
+		}
+	}
+
+	private long bytesPerIteration(Runnable body)
+	{
+		for (int i = 0; i < WARMUP_ITERATIONS; i++)
+		{
+			body.run();
+		}
+
+		long thread = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < MEASURED_ITERATIONS; i++)
+		{
+			body.run();
+		}
+		long after = threads.getThreadAllocatedBytes(thread);
+		return (after - before) / MEASURED_ITERATIONS;
+	}
+
+	private static void assertBudget(String what, long bytes, long budget)
+	{
+		assertTrue(what + " allocated " + bytes + " bytes, budget is " + budget, bytes <= budget);
+	}
+}
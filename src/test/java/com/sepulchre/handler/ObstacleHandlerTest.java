@@ -0,0 +1,159 @@
+package com.sepulchre.handler;
+
+import com.sepulchre.model.WizardPhase;
+import com.sepulchre.model.WizardStatue;
+import com.sepulchre.stub.SyntheticFloor;
+import com.sepulchre.util.LaneTables;
+import com.sepulchre.util.SepulchreConstants;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Locking wizard statues to the floor clock and falling back to polling, for one statue whose
+ * animation each test steps through its fire / safe / warning cycle by hand.
+ */
+public class ObstacleHandlerTest
+{
+	private static final int FIRE = 2;
+	private static final int SAFE = 4;
+	private static final int WARNING = 2;
+	private static final int CYCLE = FIRE + SAFE + WARNING;
+
+	private final SyntheticFloor floor = new SyntheticFloor(0, 0, 0);
+	private final ObstacleHandler handler = floor.getHandler();
+	private final int[] animation = {-1};
+
+	@Test
+	public void locksOnTheFirstPhaseChangeOfAnyKind()
+	{
+		// spawned mid-rest, the first change it shows is the start of its warning
+		WizardStatue wizard = spawn(3);
+		step(4);
+		step(5);
+		assertFalse(wizard.isLocked());
+		assertFalse(wizard.isSynced());
+
+		step(6);
+		assertTrue(wizard.isLocked());
+		assertEquals(WizardPhase.WARNING, wizard.getPhase());
+		assertEquals(WARNING, wizard.getTickCounter());
+		assertFollowsCycle(wizard, 7);
+	}
+
+	@Test
+	public void lateStatueFallsBackToPollingUntilItsNextPhaseChange()
+	{
+		WizardStatue wizard = spawn(CYCLE - 1);
+		step(0);
+		assertTrue(wizard.isLocked());
+		step(1);
+		step(2);
+		step(3);
+
+		// the animation holds a tick, which the clock first contradicts when it starts warning
+		step(3);
+		step(4);
+		assertTrue(wizard.isLocked());
+		step(5);
+		assertFalse(wizard.isLocked());
+		assertFalse(wizard.isSynced());
+		assertEquals(WizardPhase.SAFE, wizard.getPhase());
+
+		step(6);
+		assertTrue(wizard.isLocked());
+		assertEquals(WARNING, wizard.getTickCounter());
+		assertFollowsCycle(wizard, 7);
+	}
+
+	@Test
+	public void earlyStatueFallsBackToPollingUntilItsNextPhaseChange()
+	{
+		WizardStatue wizard = spawn(CYCLE - 1);
+		step(0);
+		step(1);
+		step(2);
+		step(3);
+
+		// the animation skips a tick, which shows on the clock's last tick of rest
+		step(5);
+		assertTrue(wizard.isLocked());
+		step(6);
+		assertFalse(wizard.isLocked());
+		assertFalse(wizard.isSynced());
+		assertEquals(WizardPhase.WARNING, wizard.getPhase());
+
+		step(7);
+		assertFalse(wizard.isSynced());
+		step(0);
+		assertTrue(wizard.isLocked());
+		assertEquals(FIRE, wizard.getTickCounter());
+		assertFollowsCycle(wizard, 1);
+	}
+
+	/**
+	 * Spawns the statue {@code position} ticks into its cycle.
+	 */
+	private WizardStatue spawn(int position)
+	{
+		animation[0] = animationAt(position);
+		int id = SepulchreConstants.WIZARD_FLAME_OBJECT_IDS.iterator().next();
+		handler.onGameObjectSpawned(floor.gameObject(id, 50, 50, LaneTables.EAST * 512, animation));
+		return handler.getWizardStatues(SyntheticFloor.PLANE).get(0);
+	}
+
+	/**
+	 * Runs one handler tick with the statue's animation {@code position} ticks into its cycle.
+	 */
+	private void step(int position)
+	{
+		animation[0] = animationAt(position);
+		handler.onGameTick();
+
+		WizardStatue wizard = handler.getWizardStatues(SyntheticFloor.PLANE).get(0);
+		for (int tile : wizard.getFireTiles())
+		{
+			assertEquals("danger grid at position " + position, wizard.isFiring(), handler.getDangerGrid().isDangerous(tile));
+		}
+	}
+
+	/**
+	 * Steps two more cycles from {@code position}, checking the locked statue reads its phase and
+	 * counter off the clock as its own animation would give them.
+	 */
+	private void assertFollowsCycle(WizardStatue wizard, int position)
+	{
+		for (int i = 0; i < 2 * CYCLE; i++)
+		{
+			int at = (position + i) % CYCLE;
+			step(at);
+			assertTrue(wizard.isLocked());
+			assertEquals("phase at position " + at, phaseAt(at), wizard.getPhase());
+			assertEquals("counter at position " + at, countdownAt(at), wizard.getTickCounter());
+		}
+	}
+
+	private static int animationAt(int position)
+	{
+		WizardPhase phase = phaseAt(position);
+		return phase == WizardPhase.FIRING ? SepulchreConstants.WIZARD_ANIM_FIRE
+			: phase == WizardPhase.WARNING ? SepulchreConstants.WIZARD_ANIM_WARNING
+			: -1;
+	}
+
+	private static WizardPhase phaseAt(int position)
+	{
+		return position < FIRE ? WizardPhase.FIRING
+			: position < FIRE + SAFE ? WizardPhase.SAFE
+			: WizardPhase.WARNING;
+	}
+
+	private static int countdownAt(int position)
+	{
+		return position < FIRE ? FIRE - position
+			: position < FIRE + SAFE ? FIRE + SAFE - position
+			: CYCLE - position;
+	}
+}
@@ -0,0 +1,123 @@
+package com.sepulchre.layout;
+
+import com.sepulchre.util.LaneTables;
+import com.sepulchre.util.TileKey;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class FloorLayoutsTest
+{
+	private static final int NORTH = LaneTables.NORTH * 512;
+	private static final int EAST = LaneTables.EAST * 512;
+
+	private static final int FIRST = TileKey.pack(2240, 5950, 0);
+	private static final int SECOND = TileKey.pack(2241, 5950, 0);
+	private static final int THIRD = TileKey.pack(2240, 5950, 1);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void snapshotLoadsBackToTheSameEntries()
+	{
+		FloorLayouts layouts = new FloorLayouts();
+		layouts.learnWizard(FIRST, NORTH, FloorLayouts.ACTIVE);
+		layouts.learnWizard(SECOND, EAST, FloorLayouts.INACTIVE);
+		layouts.learnWizard(THIRD, EAST, FloorLayouts.ACTIVE);
+
+		FloorLayouts loaded = new FloorLayouts();
+		loaded.load(layouts.snapshot());
+
+		assertEquals(3, loaded.size());
+		assertEquals(FloorLayouts.ACTIVE, loaded.getWizardActivation(FIRST, NORTH));
+		assertEquals(FloorLayouts.INACTIVE, loaded.getWizardActivation(SECOND, EAST));
+		assertEquals(FloorLayouts.ACTIVE, loaded.getWizardActivation(THIRD, EAST));
+	}
+
+	@Test
+	public void entryOnlyAppliesFacingTheWayItWasLearned()
+	{
+		FloorLayouts layouts = new FloorLayouts();
+		layouts.learnWizard(FIRST, NORTH, FloorLayouts.ACTIVE);
+
+		assertEquals(FloorLayouts.ACTIVE, layouts.getWizardActivation(FIRST, NORTH + 200));
+		assertEquals(FloorLayouts.UNKNOWN, layouts.getWizardActivation(FIRST, EAST));
+		assertEquals(FloorLayouts.UNKNOWN, layouts.getWizardActivation(SECOND, NORTH));
+	}
+
+	@Test
+	public void snapshotIsOnlyTakenAfterAChange()
+	{
+		FloorLayouts layouts = new FloorLayouts();
+		assertNull(layouts.snapshot());
+
+		layouts.learnWizard(FIRST, NORTH, FloorLayouts.INACTIVE);
+		byte[] snapshot = layouts.snapshot();
+		assertNotNull(snapshot);
+		assertNull(layouts.snapshot());
+
+		// relearning what is already known is not a change
+		layouts.learnWizard(FIRST, NORTH, FloorLayouts.INACTIVE);
+		assertNull(layouts.snapshot());
+
+		layouts.learnWizard(FIRST, NORTH, FloorLayouts.ACTIVE);
+		assertNotNull(layouts.snapshot());
+
+		// loading replaces the entries and starts clean
+		layouts.load(snapshot);
+		assertNull(layouts.snapshot());
+		assertEquals(FloorLayouts.INACTIVE, layouts.getWizardActivation(FIRST, NORTH));
+	}
+
+	@Test
+	public void unreadableContentsLoadNothingOrWhatCameBeforeTheDamage()
+	{
+		FloorLayouts layouts = new FloorLayouts();
+		layouts.learnWizard(FIRST, NORTH, FloorLayouts.ACTIVE);
+		layouts.learnWizard(SECOND, NORTH, FloorLayouts.ACTIVE);
+		byte[] snapshot = layouts.snapshot();
+
+		FloorLayouts loaded = new FloorLayouts();
+		loaded.load(null);
+		assertEquals(0, loaded.size());
+
+		byte[] oldVersion = snapshot.clone();
+		ByteBuffer.wrap(oldVersion).putShort(4, (short) (FloorLayouts.VERSION - 1));
+		loaded.load(oldVersion);
+		assertEquals(0, loaded.size());
+
+		loaded.load(Arrays.copyOf(snapshot, snapshot.length - 1));
+		assertEquals(1, loaded.size());
+	}
+
+	@Test
+	public void fileRoundTrip() throws IOException
+	{
+		File learned = new File(folder.getRoot(), "sepulchre/floor-layouts.bin");
+		assertNull(FloorLayouts.read(learned));
+
+		FloorLayouts layouts = new FloorLayouts();
+		layouts.learnWizard(FIRST, NORTH, FloorLayouts.ACTIVE);
+		byte[] snapshot = layouts.snapshot();
+		FloorLayouts.write(learned, snapshot);
+		assertArrayEquals(snapshot, FloorLayouts.read(learned));
+
+		// a second write replaces the first
+		layouts.learnWizard(SECOND, EAST, FloorLayouts.INACTIVE);
+		FloorLayouts.write(learned, layouts.snapshot());
+		FloorLayouts loaded = new FloorLayouts();
+		loaded.load(FloorLayouts.read(learned));
+		assertEquals(2, loaded.size());
+		assertEquals(FloorLayouts.INACTIVE, loaded.getWizardActivation(SECOND, EAST));
+	}
+}
@@ -0,0 +1,117 @@
+package com.sepulchre.model;
+
+import com.sepulchre.stub.SyntheticFloor;
+import com.sepulchre.util.SepulchreConstants;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FloorClockTest
+{
+	private static final int FIRE = 2;
+	private static final int SAFE = 4;
+	private static final int WARNING = 2;
+	private static final int CYCLE = FIRE + SAFE + WARNING;
+
+	@Test
+	public void clockAgreesWithTheStatuesOwnCounterFromTheFirstPhaseChange()
+	{
+		// start the statue at every point of its cycle, so the clock locks on each kind of change
+		for (int offset = 0; offset < CYCLE; offset++)
+		{
+			int[] animation = {animationAt(offset)};
+			WizardStatue statue = statue(animation);
+			FloorClock clock = new FloorClock(FIRE, SAFE, WARNING);
+			int shift = -1;
+
+			for (int tick = 1; tick <= 3 * CYCLE; tick++)
+			{
+				animation[0] = animationAt(offset + tick);
+				clock.advance(tick);
+				WizardPhase before = statue.getPhase();
+				statue.onGameTick();
+
+				if (shift < 0 && statue.getPhase() != before)
+				{
+					assertTrue("offset " + offset + " locks on tick " + tick, tick <= SAFE);
+					shift = clock.lockPhaseStart(statue.getPhase());
+				}
+				if (shift >= 0)
+				{
+					String at = "offset " + offset + " tick " + tick;
+					assertEquals(at, statue.getPhase(), clock.phaseAt(tick, shift));
+					assertEquals(at, statue.getTickCounter(), clock.countdownAt(tick, shift));
+				}
+			}
+			assertTrue(clock.isLocked());
+		}
+	}
+
+	@Test
+	public void statuesLockedOnDifferentChangesShareTheClock()
+	{
+		FloorClock clock = new FloorClock(FIRE, SAFE, WARNING);
+
+		// one statue starts resting on tick 1 and another starts warning on tick 3, while the
+		// first is still two ticks from the end of its rest
+		clock.advance(1);
+		int first = clock.lockPhaseStart(WizardPhase.SAFE);
+		clock.advance(3);
+		int second = clock.lockPhaseStart(WizardPhase.WARNING);
+
+		for (int tick = 1; tick < 1 + 2 * CYCLE; tick++)
+		{
+			assertEquals(clock.phaseAt(tick + 2, first), clock.phaseAt(tick, second));
+			assertEquals(clock.countdownAt(tick + 2, first), clock.countdownAt(tick, second));
+		}
+		assertEquals(WizardPhase.FIRING, clock.phaseAt(7, first));
+		assertEquals(FIRE, clock.countdownAt(7, first));
+	}
+
+	@Test
+	public void checkTicksAreEachPhaseChangeAndTheTickBefore()
+	{
+		FloorClock clock = new FloorClock(FIRE, SAFE, WARNING);
+		assertFalse(clock.isCheckTick());
+
+		clock.advance(10);
+		int shift = clock.lockPhaseStart(WizardPhase.FIRING);
+
+		for (int position = 0; position < CYCLE; position++)
+		{
+			clock.advance(10 + position);
+			boolean changes = position == 0 || position == FIRE || position == FIRE + SAFE;
+			assertEquals("position " + position, changes, clock.changesPhase(10 + position, shift));
+			boolean midRest = position == FIRE + 1 || position == FIRE + 2;
+			assertEquals("position " + position, !midRest, clock.isCheckTick());
+		}
+
+		clock.reset();
+		assertFalse(clock.isLocked());
+		assertFalse(clock.isCheckTick());
+	}
+
+	private static WizardStatue statue(int[] animation)
+	{
+		int id = SepulchreConstants.WIZARD_FLAME_OBJECT_IDS.iterator().next();
+		WizardStatue statue = new WizardStatue(new SyntheticFloor(0, 0, 0).gameObject(id, 50, 50, 0, animation));
+		statue.setFirePhaseTicks(FIRE);
+		statue.setSafePhaseTicks(SAFE);
+		statue.setWarningPhaseTicks(WARNING);
+		statue.sampleAnimation();
+		return statue;
+	}
+
+	/**
+	 * The statue's animation {@code position} ticks into a cycle that starts with firing.
+	 */
+	static int animationAt(int position)
+	{
+		position %= CYCLE;
+		return position < FIRE ? SepulchreConstants.WIZARD_ANIM_FIRE
+			: position < FIRE + SAFE ? -1
+			: SepulchreConstants.WIZARD_ANIM_WARNING;
+	}
+}
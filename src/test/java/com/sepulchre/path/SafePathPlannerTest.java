@@ -0,0 +1,222 @@
+package com.sepulchre.path;
+
+import com.sepulchre.handler.ObstacleHandler;
+import com.sepulchre.stub.SyntheticFloor;
+import com.sepulchre.util.LaneTables;
+import com.sepulchre.util.SepulchreConstants;
+import com.sepulchre.util.TileKey;
+import java.util.Arrays;
+import net.runelite.api.CollisionDataFlag;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Routes through a one-tile corridor running north from the player, walled on both sides and
+ * behind, so every route to the far end has to pass the tiles the tests put fire on.
+ */
+public class SafePathPlannerTest
+{
+	private static final int X = 52;
+	private static final int Y = 40;
+	private static final int CORRIDOR_LENGTH = 10;
+
+	/**
+	 * Faces east, so a statue three tiles west of the corridor puts its middle flame tile in it.
+	 */
+	private static final int EAST = LaneTables.EAST * 512;
+
+	@Test
+	public void unknownWizardBlocksItsLaneUntilItsCheckWindowPasses()
+	{
+		SyntheticFloor floor = corridor();
+		spawnWizard(floor, 5, new int[]{-1});
+		SafePathPlanner planner = new SafePathPlanner(floor.getClient(), floor.getHandler());
+
+		// an unsynced statue that may still be active is taken as firing for the whole horizon
+		for (int tick = 0; tick < 10; tick++)
+		{
+			planner.update(false);
+			assertFalse(planner.isPathComplete());
+			assertEquals(5, planner.getPathLength());
+			assertEquals(tile(X, Y + 4), planner.getPath()[4]);
+			floor.getHandler().onGameTick();
+		}
+
+		planner.update(false);
+		assertTrue(planner.isPathComplete());
+		assertEquals(CORRIDOR_LENGTH + 1, planner.getPathLength());
+		assertEquals(tile(X, Y + CORRIDOR_LENGTH), planner.getPath()[CORRIDOR_LENGTH]);
+	}
+
+	@Test
+	public void routeWaitsForTheFireToPassAndIsKeptAfterAStep()
+	{
+		SyntheticFloor floor = corridor();
+		ObstacleHandler handler = floor.getHandler();
+		int[] animation = {-1};
+		int fireTile = spawnWizard(floor, 8, animation);
+		SafePathPlanner planner = new SafePathPlanner(floor.getClient(), handler);
+
+		// starts firing now: 2 ticks of fire, 4 safe and 2 warning, so it fires again 8 and 9
+		// ticks from the plan, just as a straight walk would reach it
+		animation[0] = SepulchreConstants.WIZARD_ANIM_FIRE;
+		handler.onGameTick();
+		planner.update(false);
+
+		assertTrue(planner.isPathComplete());
+		assertEquals(CORRIDOR_LENGTH + 3, planner.getPathLength());
+		int[] path = Arrays.copyOf(planner.getPath(), planner.getPathLength());
+		assertNotEquals(fireTile, path[8]);
+		assertNotEquals(fireTile, path[9]);
+		assertEquals(fireTile, path[10]);
+		assertEquals(tile(X, Y + CORRIDOR_LENGTH), path[path.length - 1]);
+		assertSingleSteps(path, 1);
+
+		// one step along the route with the statue still on its rhythm keeps the rest of it
+		floor.placePlayer(sceneX(path[1]), sceneY(path[1]), X, Y + CORRIDOR_LENGTH);
+		handler.onGameTick();
+		planner.update(false);
+
+		assertTrue(planner.isPathComplete());
+		assertArrayEquals(Arrays.copyOfRange(path, 1, path.length), Arrays.copyOf(planner.getPath(), planner.getPathLength()));
+	}
+
+	@Test
+	public void unreachableDestinationGetsAsCloseAsItCan()
+	{
+		SyntheticFloor floor = new SyntheticFloor(0, 0, 0);
+		int targetX = X + 5;
+		for (int dx = -1; dx <= 1; dx++)
+		{
+			for (int dy = -1; dy <= 1; dy++)
+			{
+				if (dx != 0 || dy != 0)
+				{
+					floor.setCollisionFlags(targetX + dx, Y + dy, CollisionDataFlag.BLOCK_MOVEMENT_FULL);
+				}
+			}
+		}
+		floor.placePlayer(X, Y, targetX, Y);
+		SafePathPlanner planner = new SafePathPlanner(floor.getClient(), floor.getHandler());
+
+		planner.update(false);
+
+		assertFalse(planner.isPathComplete());
+		assertEquals(4, planner.getPathLength());
+		int last = planner.getPath()[3];
+		assertEquals(2, Math.max(Math.abs(sceneX(last) - targetX), Math.abs(sceneY(last) - Y)));
+	}
+
+	@Test
+	public void diagonalStepCannotCutABlockedCorner()
+	{
+		SyntheticFloor open = new SyntheticFloor(0, 0, 0);
+		open.placePlayer(X, Y, X + 1, Y + 1);
+		SafePathPlanner planner = new SafePathPlanner(open.getClient(), open.getHandler());
+		planner.update(false);
+		assertEquals(2, planner.getPathLength());
+
+		SyntheticFloor corner = new SyntheticFloor(0, 0, 0);
+		corner.setCollisionFlags(X + 1, Y, CollisionDataFlag.BLOCK_MOVEMENT_FULL);
+		corner.placePlayer(X, Y, X + 1, Y + 1);
+		planner = new SafePathPlanner(corner.getClient(), corner.getHandler());
+		planner.update(false);
+
+		assertTrue(planner.isPathComplete());
+		assertEquals(3, planner.getPathLength());
+		assertEquals(tile(X, Y + 1), planner.getPath()[1]);
+	}
+
+	@Test
+	public void runningCoversTwoTilesPerTick()
+	{
+		SyntheticFloor floor = new SyntheticFloor(0, 0, 0);
+		floor.placePlayer(X, Y, X, Y + CORRIDOR_LENGTH);
+		SafePathPlanner planner = new SafePathPlanner(floor.getClient(), floor.getHandler());
+
+		planner.update(true);
+
+		assertTrue(planner.isPathComplete());
+		assertEquals(CORRIDOR_LENGTH / 2 + 1, planner.getPathLength());
+		assertSingleSteps(Arrays.copyOf(planner.getPath(), planner.getPathLength()), 2);
+	}
+
+	@Test
+	public void runningCannotJumpOverFire()
+	{
+		SyntheticFloor floor = corridor();
+		int fireTile = spawnWizard(floor, 5, new int[]{-1});
+		SafePathPlanner planner = new SafePathPlanner(floor.getClient(), floor.getHandler());
+
+		planner.update(true);
+
+		assertFalse(planner.isPathComplete());
+		int[] path = Arrays.copyOf(planner.getPath(), planner.getPathLength());
+		assertEquals(tile(X, Y + 4), path[path.length - 1]);
+		for (int tile : path)
+		{
+			assertNotEquals(fireTile, tile);
+		}
+		assertSingleSteps(path, 2);
+	}
+
+	/**
+	 * The corridor floor with the player at its south end walking to its north end.
+	 */
+	private static SyntheticFloor corridor()
+	{
+		SyntheticFloor floor = new SyntheticFloor(0, 0, 0);
+		for (int y = Y - 1; y <= Y + CORRIDOR_LENGTH + 1; y++)
+		{
+			floor.setCollisionFlags(X - 1, y, CollisionDataFlag.BLOCK_MOVEMENT_FULL);
+			floor.setCollisionFlags(X + 1, y, CollisionDataFlag.BLOCK_MOVEMENT_FULL);
+		}
+		floor.setCollisionFlags(X, Y - 1, CollisionDataFlag.BLOCK_MOVEMENT_FULL);
+		floor.placePlayer(X, Y, X, Y + CORRIDOR_LENGTH);
+		return floor;
+	}
+
+	/**
+	 * Spawns a wizard statue whose flame crosses the corridor {@code row} tiles north of the player.
+	 *
+	 * @return the packed corridor tile it sets on fire
+	 */
+	private static int spawnWizard(SyntheticFloor floor, int row, int[] animation)
+	{
+		int id = SepulchreConstants.WIZARD_FLAME_OBJECT_IDS.iterator().next();
+		floor.getHandler().onGameObjectSpawned(floor.gameObject(id, X - 3, Y + row, EAST, animation));
+		return tile(X, Y + row);
+	}
+
+	/**
+	 * Asserts each tick of the route moves at most {@code maxTiles} tiles.
+	 */
+	private static void assertSingleSteps(int[] path, int maxTiles)
+	{
+		for (int i = 1; i < path.length; i++)
+		{
+			int moved = Math.max(Math.abs(sceneX(path[i]) - sceneX(path[i - 1])), Math.abs(sceneY(path[i]) - sceneY(path[i - 1])));
+			assertTrue("tick " + i + " moves " + moved + " tiles", moved <= maxTiles);
+		}
+	}
+
+	private static int tile(int sceneX, int sceneY)
+	{
+		return TileKey.pack(SyntheticFloor.BASE_X + sceneX, SyntheticFloor.BASE_Y + sceneY, SyntheticFloor.PLANE);
+	}
+
+	private static int sceneX(int tile)
+	{
+		return TileKey.getX(tile) - SyntheticFloor.BASE_X;
+	}
+
+	private static int sceneY(int tile)
+	{
+		return TileKey.getY(tile) - SyntheticFloor.BASE_Y;
+	}
+}
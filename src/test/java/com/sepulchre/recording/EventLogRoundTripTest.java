@@ -0,0 +1,130 @@
+package com.sepulchre.recording;
+
+import com.sepulchre.handler.ObstacleHandler;
+import com.sepulchre.layout.FloorLayouts;
+import com.sepulchre.model.CrossbowStatue;
+import com.sepulchre.model.WizardStatue;
+import com.sepulchre.stub.SyntheticFloor;
+import com.sepulchre.util.GameObjectRegistry;
+import com.sepulchre.util.IntHashSet;
+import com.sepulchre.util.IntIntHashMap;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventLogRoundTripTest
+{
+	private static final int TICKS = 120;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void replayReproducesTheRecordedHandlerState() throws IOException, InterruptedException
+	{
+		SyntheticFloor floor = new SyntheticFloor(20, 8, 24);
+		EventRecorder recorder = new EventRecorder(floor.getClient());
+		floor.setRecorder(recorder);
+		File file = folder.newFile("floor.bin");
+
+		recorder.start(file);
+		floor.spawnAll();
+		for (int i = 0; i < TICKS; i++)
+		{
+			floor.tick();
+		}
+		recorder.stop();
+		assertTrue(recorder.awaitWritten(10, TimeUnit.SECONDS));
+
+		EventReplayer replayer = EventReplayer.load(file.toPath());
+		assertEquals(TICKS, replayer.getTicks());
+
+		ObstacleHandler replayed = new ObstacleHandler(replayer.getClient(), new FloorLayouts());
+		replayer.replay(replayed);
+		assertSameState(floor.getHandler(), replayed);
+	}
+
+	@Test
+	public void restartingDoesNotCloseTheNewRecording() throws IOException, InterruptedException
+	{
+		SyntheticFloor floor = new SyntheticFloor(4, 2, 0);
+		EventRecorder recorder = new EventRecorder(floor.getClient());
+		floor.setRecorder(recorder);
+		File first = folder.newFile("first.bin");
+		File second = folder.newFile("second.bin");
+
+		// the first recording's close is still queued on its writer when the second one opens
+		recorder.start(first);
+		floor.spawnAll();
+		floor.tick();
+		recorder.start(second);
+		for (int i = 0; i < TICKS; i++)
+		{
+			floor.tick();
+		}
+		recorder.stop();
+		assertTrue(recorder.awaitWritten(10, TimeUnit.SECONDS));
+
+		assertEquals(1, EventReplayer.load(first.toPath()).getTicks());
+		assertEquals(TICKS, EventReplayer.load(second.toPath()).getTicks());
+	}
+
+	private static void assertSameState(ObstacleHandler expected, ObstacleHandler actual)
+	{
+		int plane = SyntheticFloor.PLANE;
+		assertEquals(expected.getTick(), actual.getTick());
+
+		GameObjectRegistry<WizardStatue> expectedWizards = expected.getWizardStatues(plane);
+		GameObjectRegistry<WizardStatue> actualWizards = actual.getWizardStatues(plane);
+		assertEquals(expectedWizards.size(), actualWizards.size());
+		for (int i = 0; i < expectedWizards.size(); i++)
+		{
+			WizardStatue wizard = expectedWizards.get(i);
+			WizardStatue replayed = actualWizards.get(i);
+			assertEquals(wizard.getLocation(), replayed.getLocation());
+			assertEquals(wizard.getPhase(), replayed.getPhase());
+			assertEquals(wizard.getTickCounter(), replayed.getTickCounter());
+			assertEquals(wizard.isLocked(), replayed.isLocked());
+		}
+
+		GameObjectRegistry<CrossbowStatue> expectedCrossbows = expected.getCrossbowStatues(plane);
+		GameObjectRegistry<CrossbowStatue> actualCrossbows = actual.getCrossbowStatues(plane);
+		assertEquals(expectedCrossbows.size(), actualCrossbows.size());
+		for (int i = 0; i < expectedCrossbows.size(); i++)
+		{
+			assertEquals(expectedCrossbows.get(i).getPhase(), actualCrossbows.get(i).getPhase());
+		}
+
+		assertSameEntries(expected.getActiveLightning(plane), actual.getActiveLightning(plane));
+		assertSameKeys(expected.getActiveYellowPortals(plane), actual.getActiveYellowPortals(plane));
+		assertSameKeys(expected.getActiveBluePortals(plane), actual.getActiveBluePortals(plane));
+
+		// NPC movement is not part of the log, so only the tracked projectiles are compared
+		assertEquals(expected.getBolts(plane).size(), actual.getBolts(plane).size());
+		assertEquals(expected.getSwords(plane).size(), actual.getSwords(plane).size());
+	}
+
+	private static void assertSameEntries(IntIntHashMap expected, IntIntHashMap actual)
+	{
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++)
+		{
+			assertEquals(expected.valueAt(i), actual.get(expected.keyAt(i)));
+		}
+	}
+
+	private static void assertSameKeys(IntHashSet expected, IntHashSet actual)
+	{
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++)
+		{
+			assertTrue(actual.contains(expected.keyAt(i)));
+		}
+	}
+}
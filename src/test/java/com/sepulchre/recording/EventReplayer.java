@@ -0,0 +1,357 @@
+package com.sepulchre.recording;
+
+import com.sepulchre.handler.ObstacleHandler;
+import com.sepulchre.stub.Stubs;
+import com.sepulchre.util.TileKey;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.runelite.api.Animation;
+import net.runelite.api.Client;
+import net.runelite.api.Constants;
+import net.runelite.api.DynamicObject;
+import net.runelite.api.GameObject;
+import net.runelite.api.GameState;
+import net.runelite.api.GraphicsObject;
+import net.runelite.api.GroundObject;
+import net.runelite.api.NPC;
+import net.runelite.api.Perspective;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.events.GameObjectDespawned;
+import net.runelite.api.events.GraphicsObjectCreated;
+import net.runelite.api.events.GroundObjectDespawned;
+import net.runelite.api.events.GroundObjectSpawned;
+import net.runelite.api.events.NpcDespawned;
+import net.runelite.api.events.NpcSpawned;
+
+/**
+ * Feeds an {@link EventLog} recording back through an {@link ObstacleHandler} against a stub
+ * client. The log is decoded once up front into prepared events and stub objects, so
+ * {@link #replay(ObstacleHandler)} measures the handler rather than parsing.
+ */
+public class EventReplayer
+{
+	private static final int SET_SCENE = 0;
+	private static final int TICK = 1;
+	private static final int OBJECT_SPAWNED = 2;
+	private static final int OBJECT_DESPAWNED = 3;
+	private static final int GROUND_OBJECT_SPAWNED = 4;
+	private static final int GROUND_OBJECT_DESPAWNED = 5;
+	private static final int NPC_SPAWNED = 6;
+	private static final int NPC_DESPAWNED = 7;
+	private static final int GRAPHICS_OBJECT_CREATED = 8;
+	private static final int SET_ANIMATION = 9;
+
+	private final Map<String, Object> scene = new HashMap<>();
+	private final Client client;
+
+	private int[] ops = new int[1024];
+	private final List<Object> events = new ArrayList<>();
+	private final List<Animation[]> animationHolders = new ArrayList<>();
+	private int size;
+	private int ticks;
+
+	private EventReplayer()
+	{
+		scene.put("getGameState", GameState.LOGGED_IN);
+		scene.put("getId", -1);
+		scene.put("getSizeX", Constants.SCENE_SIZE);
+		scene.put("getSizeY", Constants.SCENE_SIZE);
+		scene.put("getTileHeights", new int[Constants.MAX_Z][Constants.SCENE_SIZE + 1][Constants.SCENE_SIZE + 1]);
+		scene.put("getTileSettings", new byte[Constants.MAX_Z][Constants.SCENE_SIZE][Constants.SCENE_SIZE]);
+		client = Stubs.stub(Client.class, scene);
+	}
+
+	public static EventReplayer load(Path path) throws IOException
+	{
+		return decode(ByteBuffer.wrap(Files.readAllBytes(path)));
+	}
+
+	public static EventReplayer decode(ByteBuffer log)
+	{
+		if (log.remaining() < EventLog.HEADER_SIZE || log.getInt() != EventLog.MAGIC)
+		{
+			throw new IllegalArgumentException("not an event recording");
+		}
+		short version = log.getShort();
+		if (version != EventLog.VERSION)
+		{
+			throw new IllegalArgumentException("unsupported recording version " + version);
+		}
+
+		EventReplayer replayer = new EventReplayer();
+		Decoder decoder = replayer.new Decoder();
+		while (log.remaining() >= EventLog.RECORD_HEADER_SIZE)
+		{
+			byte type = log.get();
+			int length = log.get() & 0xFF;
+			if (log.remaining() < length)
+			{
+				// A recording cut short by a crash ends in a partial record.
+				break;
+			}
+			int next = log.position() + length;
+			decoder.decode(type, log);
+			log.position(next);
+		}
+		return replayer;
+	}
+
+	public Client getClient()
+	{
+		return client;
+	}
+
+	/**
+	 * Number of game ticks in the recording.
+	 */
+	public int getTicks()
+	{
+		return ticks;
+	}
+
+	/**
+	 * Number of prepared events, ticks included.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Resets the handler and runs the whole recording through it.
+	 */
+	public void replay(ObstacleHandler handler)
+	{
+		for (Animation[] animation : animationHolders)
+		{
+			animation[0] = null;
+		}
+		handler.reset();
+		for (int i = 0; i < size; i++)
+		{
+			Object event = events.get(i);
+			switch (ops[i])
+			{
+				case SET_SCENE:
+					int[] base = (int[]) event;
+					scene.put("getBaseX", base[0]);
+					scene.put("getBaseY", base[1]);
+					scene.put("getPlane", base[2]);
+					handler.reset();
+					break;
+				case TICK:
+					handler.onGameTick();
+					break;
+				case OBJECT_SPAWNED:
+					handler.onGameObjectSpawned((GameObject) event);
+					break;
+				case OBJECT_DESPAWNED:
+					handler.onGameObjectDespawned((GameObjectDespawned) event);
+					break;
+				case GROUND_OBJECT_SPAWNED:
+					handler.onGroundObjectSpawned((GroundObjectSpawned) event);
+					break;
+				case GROUND_OBJECT_DESPAWNED:
+					handler.onGroundObjectDespawned((GroundObjectDespawned) event);
+					break;
+				case NPC_SPAWNED:
+					handler.onNpcSpawned((NpcSpawned) event);
+					break;
+				case NPC_DESPAWNED:
+					handler.onNpcDespawned((NpcDespawned) event);
+					break;
+				case GRAPHICS_OBJECT_CREATED:
+					handler.onGraphicsObjectCreated((GraphicsObjectCreated) event);
+					break;
+				case SET_ANIMATION:
+					Object[] change = (Object[]) event;
+					((Animation[]) change[0])[0] = (Animation) change[1];
+					break;
+			}
+		}
+	}
+
+	private void add(int op, Object event)
+	{
+		if (size == ops.length)
+		{
+			ops = Arrays.copyOf(ops, size * 2);
+		}
+		ops[size] = op;
+		events.add(event);
+		size++;
+	}
+
+	/**
+	 * Decode-time view of the recording: live handles and indices, and the scene base used to
+	 * turn recorded world tiles back into local points.
+	 */
+	private final class Decoder
+	{
+		private final Map<Integer, GameObject> objects = new HashMap<>();
+		private final Map<Integer, Animation[]> objectAnimations = new HashMap<>();
+		private final Map<Integer, NPC> npcs = new HashMap<>();
+		private final Map<Integer, Animation> animations = new HashMap<>();
+		private int baseX;
+		private int baseY;
+
+		private void decode(byte type, ByteBuffer log)
+		{
+			switch (type)
+			{
+				case EventLog.SCENE:
+				{
+					baseX = log.getInt();
+					baseY = log.getInt();
+					int plane = log.get();
+					objects.clear();
+					objectAnimations.clear();
+					npcs.clear();
+					add(SET_SCENE, new int[]{baseX, baseY, plane});
+					break;
+				}
+				case EventLog.TICK:
+					ticks++;
+					add(TICK, null);
+					break;
+				case EventLog.OBJECT_SPAWNED:
+				{
+					int handle = log.getInt();
+					int id = log.getInt();
+					int tile = log.getInt();
+					int orientation = log.getShort();
+					Animation[] animation = new Animation[1];
+					animationHolders.add(animation);
+					GameObject gameObject = gameObject(id, tile, orientation, animation);
+					objects.put(handle, gameObject);
+					objectAnimations.put(handle, animation);
+					add(OBJECT_SPAWNED, gameObject);
+					break;
+				}
+				case EventLog.OBJECT_DESPAWNED:
+				{
+					GameObject gameObject = objects.remove(log.getInt());
+					if (gameObject != null)
+					{
+						GameObjectDespawned event = new GameObjectDespawned();
+						event.setGameObject(gameObject);
+						add(OBJECT_DESPAWNED, event);
+					}
+					break;
+				}
+				case EventLog.GROUND_OBJECT_SPAWNED:
+				{
+					GroundObjectSpawned event = new GroundObjectSpawned();
+					event.setGroundObject(groundObject(log.getInt(), log.getInt()));
+					add(GROUND_OBJECT_SPAWNED, event);
+					break;
+				}
+				case EventLog.GROUND_OBJECT_DESPAWNED:
+				{
+					GroundObjectDespawned event = new GroundObjectDespawned();
+					event.setGroundObject(groundObject(log.getInt(), log.getInt()));
+					add(GROUND_OBJECT_DESPAWNED, event);
+					break;
+				}
+				case EventLog.NPC_SPAWNED:
+				{
+					int index = log.getInt();
+					NPC npc = npc(index, log.getInt(), log.getInt());
+					npcs.put(index, npc);
+					add(NPC_SPAWNED, new NpcSpawned(npc));
+					break;
+				}
+				case EventLog.NPC_DESPAWNED:
+				{
+					NPC npc = npcs.remove(log.getInt());
+					if (npc != null)
+					{
+						add(NPC_DESPAWNED, new NpcDespawned(npc));
+					}
+					break;
+				}
+				case EventLog.GRAPHICS_OBJECT_CREATED:
+				{
+					Map<String, Object> values = new HashMap<>();
+					values.put("getId", log.getInt());
+					values.put("getLocation", localPoint(log.getInt()));
+					add(GRAPHICS_OBJECT_CREATED, new GraphicsObjectCreated(Stubs.stub(GraphicsObject.class, values)));
+					break;
+				}
+				case EventLog.ANIMATION:
+				{
+					Animation[] animation = objectAnimations.get(log.getInt());
+					int animationId = log.getInt();
+					if (animation != null)
+					{
+						add(SET_ANIMATION, new Object[]{animation, animation(animationId)});
+					}
+					break;
+				}
+			}
+		}
+
+		private GameObject gameObject(int id, int tile, int orientation, Animation[] animation)
+		{
+			Map<String, Object> values = new HashMap<>();
+			values.put("getId", id);
+			values.put("getPlane", TileKey.getPlane(tile));
+			values.put("getOrientation", orientation);
+			values.put("getWorldLocation", TileKey.toWorldPoint(tile));
+			values.put("getLocalLocation", localPoint(tile));
+
+			Map<String, Object> renderable = new HashMap<>();
+			renderable.put("getAnimation", (Stubs.Answer) args -> animation[0]);
+			values.put("getRenderable", Stubs.stub(DynamicObject.class, renderable));
+			return Stubs.stub(GameObject.class, values);
+		}
+
+		private GroundObject groundObject(int id, int tile)
+		{
+			Map<String, Object> values = new HashMap<>();
+			values.put("getId", id);
+			values.put("getPlane", TileKey.getPlane(tile));
+			values.put("getWorldLocation", TileKey.toWorldPoint(tile));
+			values.put("getLocalLocation", localPoint(tile));
+			return Stubs.stub(GroundObject.class, values);
+		}
+
+		private NPC npc(int index, int id, int tile)
+		{
+			Map<String, Object> values = new HashMap<>();
+			values.put("getIndex", index);
+			values.put("getId", id);
+			values.put("getWorldLocation", TileKey.toWorldPoint(tile));
+			values.put("getLocalLocation", localPoint(tile));
+			return Stubs.stub(NPC.class, values);
+		}
+
+		private Animation animation(int id)
+		{
+			if (id == -1)
+			{
+				return null;
+			}
+			return animations.computeIfAbsent(id, animationId ->
+			{
+				Map<String, Object> values = new HashMap<>();
+				values.put("getId", animationId);
+				return Stubs.stub(Animation.class, values);
+			});
+		}
+
+		private LocalPoint localPoint(int tile)
+		{
+			return new LocalPoint(
+				((TileKey.getX(tile) - baseX) << Perspective.LOCAL_COORD_BITS) + Perspective.LOCAL_HALF_TILE_SIZE,
+				((TileKey.getY(tile) - baseY) << Perspective.LOCAL_COORD_BITS) + Perspective.LOCAL_HALF_TILE_SIZE);
+		}
+	}
+}
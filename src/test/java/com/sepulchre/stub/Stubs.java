@@ -0,0 +1,161 @@
+package com.sepulchre.stub;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offline stand-ins for RuneLite API interfaces, built on {@link Proxy} so they do not break when
+ * the interfaces gain methods.
+ * <p>
+ * Calls are answered by method name from a value map; a value may be an {@link Answer} to compute
+ * the result from the arguments. Unmapped default methods run their default body, anything else
+ * returns zero, false, an empty string or array, or a nested stub sharing the same value map.
+ */
+public final class Stubs
+{
+	private Stubs() {}
+
+	@FunctionalInterface
+	public interface Answer
+	{
+		Object answer(Object[] args);
+	}
+
+	public static <T> T stub(Class<T> type, Map<String, Object> values)
+	{
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new Handler(type, values)));
+	}
+
+	public static <T> T stub(Class<T> type)
+	{
+		return stub(type, new HashMap<>());
+	}
+
+	private static final class Handler implements InvocationHandler
+	{
+		private final Class<?> type;
+		private final Map<String, Object> values;
+		private final Map<Class<?>, Object> nested = new HashMap<>();
+
+		private Handler(Class<?> type, Map<String, Object> values)
+		{
+			this.type = type;
+			this.values = values;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+		{
+			String name = method.getName();
+			if (method.getDeclaringClass() == Object.class)
+			{
+				switch (name)
+				{
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					default:
+						return "stub " + type.getSimpleName();
+				}
+			}
+
+			Object value = values.get(name);
+			if (value != null || values.containsKey(name))
+			{
+				if (value instanceof Answer)
+				{
+					value = ((Answer) value).answer(args);
+				}
+				return coerce(value, method.getReturnType());
+			}
+
+			if (method.isDefault())
+			{
+				return MethodHandles.privateLookupIn(type, MethodHandles.lookup())
+					.unreflectSpecial(method, type)
+					.bindTo(proxy)
+					.invokeWithArguments(args == null ? new Object[0] : args);
+			}
+
+			return defaultValue(method.getReturnType());
+		}
+
+		private Object defaultValue(Class<?> returnType)
+		{
+			if (returnType == void.class)
+			{
+				return null;
+			}
+			if (returnType.isPrimitive())
+			{
+				return coerce(0, returnType);
+			}
+			if (returnType == String.class)
+			{
+				return "";
+			}
+			if (returnType.isArray())
+			{
+				return Array.newInstance(returnType.getComponentType(), 0);
+			}
+			if (returnType.isInterface())
+			{
+				return nested.computeIfAbsent(returnType, t -> stub(t, values));
+			}
+			return null;
+		}
+	}
+
+	private static Object coerce(Object value, Class<?> returnType)
+	{
+		if (!(value instanceof Number) || !returnType.isPrimitive())
+		{
+			if (returnType == boolean.class && value == null)
+			{
+				return false;
+			}
+			return value;
+		}
+
+		Number number = (Number) value;
+		if (returnType == int.class)
+		{
+			return value instanceof Integer ? value : number.intValue();
+		}
+		if (returnType == long.class)
+		{
+			return number.longValue();
+		}
+		if (returnType == double.class)
+		{
+			return number.doubleValue();
+		}
+		if (returnType == float.class)
+		{
+			return number.floatValue();
+		}
+		if (returnType == short.class)
+		{
+			return number.shortValue();
+		}
+		if (returnType == byte.class)
+		{
+			return number.byteValue();
+		}
+		if (returnType == char.class)
+		{
+			return (char) number.intValue();
+		}
+		if (returnType == boolean.class)
+		{
+			return number.intValue() != 0;
+		}
+		return value;
+	}
+}
@@ -0,0 +1,444 @@
+package com.sepulchre.stub;
+
+import com.sepulchre.SepulchrePlugin;
+import com.sepulchre.config.SepulchreConfig;
+import com.sepulchre.handler.ObstacleHandler;
+import com.sepulchre.layout.FloorLayouts;
+import com.sepulchre.metrics.HotPathMetrics;
+import com.sepulchre.metrics.SlowPathMonitor;
+import com.sepulchre.overlay.SepulchreSceneOverlay;
+import com.sepulchre.path.SafePathPlanner;
+import com.sepulchre.recording.EventRecorder;
+import com.sepulchre.util.SepulchreConstants;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.runelite.api.Animation;
+import net.runelite.api.Client;
+import net.runelite.api.CollisionData;
+import net.runelite.api.Constants;
+import net.runelite.api.DynamicObject;
+import net.runelite.api.GameObject;
+import net.runelite.api.GameState;
+import net.runelite.api.GraphicsObject;
+import net.runelite.api.NPC;
+import net.runelite.api.NPCComposition;
+import net.runelite.api.Perspective;
+import net.runelite.api.Player;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameObjectDespawned;
+import net.runelite.api.events.GraphicsObjectCreated;
+import net.runelite.api.events.NpcSpawned;
+
+/**
+ * A deterministic sepulchre floor driven through stub client objects: wizard statues cycling
+ * fire / safe / warning, charging crossbows, portals, projectile NPCs sliding along short lanes
+ * and periodic lightning.
+ * Shared by the benchmarks and the allocation tests so both measure the same workload.
+ */
+public class SyntheticFloor
+{
+	public static final int BASE_X = 2176;
+	public static final int BASE_Y = 5888;
+	public static final int PLANE = 0;
+
+	private static final int CENTRE = Constants.SCENE_SIZE / 2;
+	private static final int WIZARD_CYCLE = 8;
+	private static final int LIGHTNING_INTERVAL = 3;
+	private static final int NPC_LANE_LENGTH = 6;
+
+	private final Map<String, Object> scene = new HashMap<>();
+	private final Animation[] animations = new Animation[4];
+	private final int[][] collisionFlags = new int[Constants.SCENE_SIZE][Constants.SCENE_SIZE];
+	private final Client client;
+	private final ObstacleHandler handler;
+	private final HotPathMetrics metrics = new HotPathMetrics();
+
+	private final List<GameObject> statues = new ArrayList<>();
+	private final List<int[]> wizardAnimations = new ArrayList<>();
+	private final List<int[]> crossbowAnimations = new ArrayList<>();
+	private final List<NPC> npcs = new ArrayList<>();
+	private final List<GraphicsObjectCreated> lightning = new ArrayList<>();
+	private final List<GraphicsObjectCreated> portalGraphics = new ArrayList<>();
+
+	private EventRecorder recorder;
+	private int tick;
+	private int nextNpcIndex;
+
+	public SyntheticFloor(int wizards, int crossbows, int projectiles)
+	{
+		scene.put("getGameState", GameState.LOGGED_IN);
+		scene.put("getBaseX", BASE_X);
+		scene.put("getBaseY", BASE_Y);
+		scene.put("getPlane", PLANE);
+		scene.put("getId", -1);
+		scene.put("getSizeX", Constants.SCENE_SIZE);
+		scene.put("getSizeY", Constants.SCENE_SIZE);
+		scene.put("getTileHeights", new int[Constants.MAX_Z][Constants.SCENE_SIZE + 1][Constants.SCENE_SIZE + 1]);
+		scene.put("getTileSettings", new byte[Constants.MAX_Z][Constants.SCENE_SIZE][Constants.SCENE_SIZE]);
+		scene.put("getMapRegions", new int[]{9565});
+		scene.put("getScale", 512);
+		scene.put("getViewportWidth", 765);
+		scene.put("getViewportHeight", 503);
+		scene.put("getViewportXOffset", 4);
+		scene.put("getViewportYOffset", 4);
+		setCamera(CENTRE * Perspective.LOCAL_TILE_SIZE, (CENTRE - 6) * Perspective.LOCAL_TILE_SIZE, -1200, 383, 0);
+
+		Map<String, Object> collision = new HashMap<>();
+		collision.put("getFlags", collisionFlags);
+		CollisionData[] collisionMaps = new CollisionData[Constants.MAX_Z];
+		Arrays.fill(collisionMaps, Stubs.stub(CollisionData.class, collision));
+		scene.put("getCollisionMaps", collisionMaps);
+
+		client = Stubs.stub(Client.class, scene);
+		scene.put("getTopLevelWorldView", client.getTopLevelWorldView());
+		scene.put("getWorldView", (Stubs.Answer) args -> scene.get("getTopLevelWorldView"));
+		handler = new ObstacleHandler(client, new FloorLayouts());
+
+		List<Integer> wizardIds = new ArrayList<>(SepulchreConstants.WIZARD_FLAME_OBJECT_IDS);
+		for (int i = 0; i < wizards; i++)
+		{
+			int[] animation = {-1};
+			wizardAnimations.add(animation);
+			int orientation = (i % 4) * 512;
+			statues.add(gameObject(wizardIds.get(i % wizardIds.size()), CENTRE - 10 + (i % 10) * 2, CENTRE + (i / 10) * 4, orientation, animation));
+		}
+
+		List<Integer> crossbowIds = new ArrayList<>(SepulchreConstants.CROSSBOW_STATUE_IDS);
+		for (int i = 0; i < crossbows; i++)
+		{
+			int[] animation = {-1};
+			crossbowAnimations.add(animation);
+			statues.add(gameObject(crossbowIds.get(i % crossbowIds.size()), CENTRE - 8 + (i % 8) * 2, CENTRE - 4, 1024, animation));
+		}
+
+		statues.add(gameObject(SepulchreConstants.PORTAL_YELLOW_ID, CENTRE - 3, CENTRE + 8, 0, new int[]{-1}));
+		statues.add(gameObject(SepulchreConstants.PORTAL_BLUE_ID, CENTRE + 3, CENTRE + 8, 0, new int[]{-1}));
+		portalGraphics.add(graphics(1799, CENTRE - 3, CENTRE + 8));
+		portalGraphics.add(graphics(1815, CENTRE + 3, CENTRE + 8));
+
+		List<Integer> boltIds = new ArrayList<>(SepulchreConstants.BOLT_NULL_NPC_IDS);
+		List<Integer> swordIds = new ArrayList<>(SepulchreConstants.SWORD_NULL_NPC_IDS);
+		for (int i = 0; i < projectiles; i++)
+		{
+			int id = (i % 2 == 0 ? boltIds : swordIds).get(i % 3);
+			npcs.add(movingNpc(id, CENTRE - 6 + i % 12, CENTRE + 2 + i / 12, i));
+		}
+
+		for (int i = 0; i < 9; i++)
+		{
+			lightning.add(graphics(SepulchreConstants.LIGHTNING_GRAPHICS_ID, CENTRE - 4 + (i % 3) * 4, CENTRE + (i / 3) * 3));
+		}
+	}
+
+	public Client getClient()
+	{
+		return client;
+	}
+
+	public ObstacleHandler getHandler()
+	{
+		return handler;
+	}
+
+	public HotPathMetrics getMetrics()
+	{
+		return metrics;
+	}
+
+	public List<GameObject> getStatues()
+	{
+		return statues;
+	}
+
+	public List<GraphicsObjectCreated> getLightning()
+	{
+		return lightning;
+	}
+
+	/**
+	 * Mirrors every event this floor raises into {@code recorder}, the way the plugin does.
+	 */
+	public void setRecorder(EventRecorder recorder)
+	{
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Stands the local player on a scene tile and sets where they are walking to.
+	 */
+	public void placePlayer(int sceneX, int sceneY, int destinationX, int destinationY)
+	{
+		Map<String, Object> player = new HashMap<>();
+		player.put("getWorldLocation", new WorldPoint(BASE_X + sceneX, BASE_Y + sceneY, PLANE));
+		player.put("getLocalLocation", localPoint(sceneX, sceneY));
+		scene.put("getLocalPlayer", Stubs.stub(Player.class, player));
+		scene.put("getLocalDestinationLocation", localPoint(destinationX, destinationY));
+	}
+
+	/**
+	 * Sets the {@link net.runelite.api.CollisionDataFlag} bits of a scene tile, on every plane.
+	 * Tiles start out open.
+	 */
+	public void setCollisionFlags(int sceneX, int sceneY, int flags)
+	{
+		collisionFlags[sceneX][sceneY] = flags;
+	}
+
+	/**
+	 * Places the camera; yaw and pitch are in the client's 2048-unit angle space.
+	 */
+	public void setCamera(int x, int y, int z, int pitch, int yaw)
+	{
+		scene.put("getCameraX", x);
+		scene.put("getCameraY", y);
+		scene.put("getCameraZ", z);
+		scene.put("getCameraPitch", pitch);
+		scene.put("getCameraYaw", yaw);
+		scene.put("getCameraFpX", (double) x);
+		scene.put("getCameraFpY", (double) y);
+		scene.put("getCameraFpZ", (double) z);
+		scene.put("getCameraFpPitch", pitch * Perspective.UNIT);
+		scene.put("getCameraFpYaw", yaw * Perspective.UNIT);
+	}
+
+	/**
+	 * Spawns every statue, portal and projectile NPC into the handler.
+	 */
+	public void spawnAll()
+	{
+		for (GameObject statue : statues)
+		{
+			if (recorder != null)
+			{
+				recorder.recordGameObjectSpawned(statue);
+			}
+			handler.onGameObjectSpawned(statue);
+		}
+		for (NPC npc : npcs)
+		{
+			if (recorder != null)
+			{
+				recorder.recordNpcSpawned(npc);
+			}
+			handler.onNpcSpawned(new NpcSpawned(npc));
+		}
+	}
+
+	public void despawnAll()
+	{
+		GameObjectDespawned event = new GameObjectDespawned();
+		for (GameObject statue : statues)
+		{
+			if (recorder != null)
+			{
+				recorder.recordGameObjectDespawned(statue);
+			}
+			event.setGameObject(statue);
+			handler.onGameObjectDespawned(event);
+		}
+	}
+
+	/**
+	 * Advances the floor by one game tick: steps statue animations, raises the tick's graphics
+	 * objects and then runs the handler's tick.
+	 */
+	public void tick()
+	{
+		tick++;
+
+		int wizardStep = tick % WIZARD_CYCLE;
+		int wizardAnimation = wizardStep < 2 ? SepulchreConstants.WIZARD_ANIM_FIRE
+			: wizardStep < 6 ? -1
+			: SepulchreConstants.WIZARD_ANIM_WARNING;
+		for (int i = 0; i < wizardAnimations.size(); i++)
+		{
+			wizardAnimations.get(i)[0] = wizardAnimation;
+		}
+
+		int crossbowStep = tick % 6;
+		int crossbowAnimation = crossbowStep < 2 ? SepulchreConstants.CROSSBOW_ANIM_CHARGING
+			: crossbowStep < 3 ? SepulchreConstants.CROSSBOW_ANIM_FIRING_1
+			: -1;
+		for (int i = 0; i < crossbowAnimations.size(); i++)
+		{
+			crossbowAnimations.get(i)[0] = crossbowAnimation;
+		}
+
+		if (tick % LIGHTNING_INTERVAL == 0)
+		{
+			for (int i = 0; i < lightning.size(); i++)
+			{
+				graphicsObjectCreated(lightning.get(i));
+			}
+		}
+		graphicsObjectCreated(portalGraphics.get(tick & 1));
+
+		if (recorder != null)
+		{
+			recorder.recordTick();
+		}
+		handler.onGameTick();
+	}
+
+	private void graphicsObjectCreated(GraphicsObjectCreated event)
+	{
+		if (recorder != null)
+		{
+			recorder.recordGraphicsObjectCreated(event.getGraphicsObject());
+		}
+		handler.onGraphicsObjectCreated(event);
+	}
+
+	/**
+	 * A scene-load burst of {@code size} game objects, {@code relevantPercent} of which are
+	 * sepulchre statues and the rest unrelated scenery.
+	 */
+	public List<GameObject> sceneLoadBurst(int size, int relevantPercent)
+	{
+		List<GameObject> burst = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+		{
+			int x = i % Constants.SCENE_SIZE;
+			int y = (i / Constants.SCENE_SIZE) % Constants.SCENE_SIZE;
+			if (i * relevantPercent / 100 != (i + 1) * relevantPercent / 100)
+			{
+				burst.add(statues.get(i % statues.size()));
+			}
+			else
+			{
+				burst.add(gameObject(1000 + i % 20000, x, y, 0, new int[]{-1}));
+			}
+		}
+		return burst;
+	}
+
+	/**
+	 * Builds the scene overlay against this floor, with the plugin flagged as inside the sepulchre
+	 * and the config answering its declared defaults.
+	 */
+	public SepulchreSceneOverlay overlay()
+	{
+		SepulchrePlugin plugin = new SepulchrePlugin();
+		try
+		{
+			Field inSepulchre = SepulchrePlugin.class.getDeclaredField("inSepulchre");
+			inSepulchre.setAccessible(true);
+			inSepulchre.setBoolean(plugin, true);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new IllegalStateException(e);
+		}
+		return new SepulchreSceneOverlay(client, plugin, Stubs.stub(SepulchreConfig.class), handler, metrics, new SlowPathMonitor(client, handler), new SafePathPlanner(client, handler));
+	}
+
+	public GameObject gameObject(int id, int sceneX, int sceneY, int orientation, int[] animation)
+	{
+		Map<String, Object> values = new HashMap<>();
+		values.put("getId", id);
+		values.put("getPlane", PLANE);
+		values.put("getOrientation", orientation);
+		values.put("getWorldLocation", new WorldPoint(BASE_X + sceneX, BASE_Y + sceneY, PLANE));
+		values.put("getLocalLocation", localPoint(sceneX, sceneY));
+		values.put("getSceneMinLocation", new java.awt.Point(sceneX, sceneY));
+		values.put("sizeX", 1);
+		values.put("sizeY", 1);
+
+		Map<String, Object> renderable = new HashMap<>();
+		renderable.put("getAnimation", (Stubs.Answer) args -> animation(animation[0]));
+		renderable.put("getAnimFrame", (Stubs.Answer) args -> tick & 7);
+		values.put("getRenderable", Stubs.stub(DynamicObject.class, renderable));
+		return Stubs.stub(GameObject.class, values);
+	}
+
+	public NPC npc(int id, int sceneX, int sceneY)
+	{
+		Map<String, Object> values = npcValues(id);
+		values.put("getWorldLocation", new WorldPoint(BASE_X + sceneX, BASE_Y + sceneY, PLANE));
+		values.put("getLocalLocation", localPoint(sceneX, sceneY));
+		return Stubs.stub(NPC.class, values);
+	}
+
+	/**
+	 * An NPC sliding back and forth along {@link #NPC_LANE_LENGTH} tiles east of its start, one
+	 * tile per tick, starting {@code phase} ticks into its cycle. Locations are built up front so
+	 * moving it allocates nothing.
+	 */
+	public NPC movingNpc(int id, int sceneX, int sceneY, int phase)
+	{
+		WorldPoint[] worldPath = new WorldPoint[NPC_LANE_LENGTH];
+		LocalPoint[] localPath = new LocalPoint[NPC_LANE_LENGTH];
+		for (int i = 0; i < NPC_LANE_LENGTH; i++)
+		{
+			worldPath[i] = new WorldPoint(BASE_X + sceneX + i, BASE_Y + sceneY, PLANE);
+			localPath[i] = localPoint(sceneX + i, sceneY);
+		}
+
+		Map<String, Object> values = npcValues(id);
+		values.put("getWorldLocation", (Stubs.Answer) args -> worldPath[laneOffset(tick + phase)]);
+		values.put("getLocalLocation", (Stubs.Answer) args -> localPath[laneOffset(tick + phase)]);
+		return Stubs.stub(NPC.class, values);
+	}
+
+	private Map<String, Object> npcValues(int id)
+	{
+		Map<String, Object> composition = new HashMap<>();
+		composition.put("getSize", 1);
+
+		Map<String, Object> values = new HashMap<>();
+		values.put("getId", id);
+		values.put("getIndex", nextNpcIndex++);
+		values.put("getTransformedComposition", Stubs.stub(NPCComposition.class, composition));
+		return values;
+	}
+
+	private static int laneOffset(int step)
+	{
+		int cycle = step % (2 * (NPC_LANE_LENGTH - 1));
+		return cycle < NPC_LANE_LENGTH ? cycle : 2 * (NPC_LANE_LENGTH - 1) - cycle;
+	}
+
+	public GraphicsObjectCreated graphics(int id, int sceneX, int sceneY)
+	{
+		Map<String, Object> values = new HashMap<>();
+		values.put("getId", id);
+		values.put("getLocation", localPoint(sceneX, sceneY));
+		return new GraphicsObjectCreated(Stubs.stub(GraphicsObject.class, values));
+	}
+
+	private Animation animation(int id)
+	{
+		// A linear scan over the few animations in play keeps the stub allocation-free per call.
+		if (id == -1)
+		{
+			return null;
+		}
+		for (int i = 0; i < animations.length; i++)
+		{
+			if (animations[i] == null)
+			{
+				Map<String, Object> values = new HashMap<>();
+				values.put("getId", id);
+				animations[i] = Stubs.stub(Animation.class, values);
+				return animations[i];
+			}
+			if (animations[i].getId() == id)
+			{
+				return animations[i];
+			}
+		}
+		throw new IllegalStateException("too many distinct animations: " + id);
+	}
+
+	private static LocalPoint localPoint(int sceneX, int sceneY)
+	{
+		return new LocalPoint(
+			(sceneX << Perspective.LOCAL_COORD_BITS) + Perspective.LOCAL_HALF_TILE_SIZE,
+			(sceneY << Perspective.LOCAL_COORD_BITS) + Perspective.LOCAL_HALF_TILE_SIZE);
+	}
+}
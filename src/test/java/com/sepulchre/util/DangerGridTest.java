@@ -0,0 +1,75 @@
+package com.sepulchre.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DangerGridTest
+{
+	private static final int X = 2200;
+	private static final int Y = 5900;
+
+	@Test
+	public void tileStaysDangerousUntilEveryHazardOnItIsRemoved()
+	{
+		DangerGrid grid = new DangerGrid();
+		int tile = TileKey.pack(X, Y, 0);
+
+		grid.add(tile);
+		grid.add(tile);
+		assertTrue(grid.isDangerous(tile));
+		assertTrue(grid.isDangerous(X, Y, 0));
+
+		grid.remove(tile);
+		assertTrue(grid.isDangerous(tile));
+		grid.remove(tile);
+		assertFalse(grid.isDangerous(tile));
+
+		// a stray remove must not leave the count negative and hide the next add
+		grid.remove(tile);
+		grid.add(tile);
+		assertTrue(grid.isDangerous(tile));
+	}
+
+	@Test
+	public void planesAndNeighboursAreIndependent()
+	{
+		DangerGrid grid = new DangerGrid();
+		grid.addAll(new int[]{TileKey.pack(X, Y, 1), TileKey.pack(X + 39, Y, 1), TileKey.pack(X + 40, Y, 1)});
+
+		assertTrue(grid.isDangerous(X, Y, 1));
+		assertFalse(grid.isDangerous(X, Y, 0));
+		assertFalse(grid.isDangerous(X + 1, Y, 1));
+		assertFalse(grid.isDangerous(X, Y + 1, 1));
+
+		// either side of a 64-bit word boundary
+		assertTrue(grid.isDangerous(X + 39, Y, 1));
+		assertTrue(grid.isDangerous(X + 40, Y, 1));
+
+		grid.removeAll(new int[]{TileKey.pack(X + 39, Y, 1)});
+		assertFalse(grid.isDangerous(X + 39, Y, 1));
+		assertTrue(grid.isDangerous(X + 40, Y, 1));
+	}
+
+	@Test
+	public void tilesOneSceneApartDoNotShareACell()
+	{
+		DangerGrid grid = new DangerGrid();
+		grid.add(TileKey.pack(X, Y, 0));
+
+		for (int dx = -103; dx <= 103; dx++)
+		{
+			for (int dy = -103; dy <= 103; dy++)
+			{
+				if (dx != 0 || dy != 0)
+				{
+					assertFalse(grid.isDangerous(X + dx, Y + dy, 0));
+				}
+			}
+		}
+
+		grid.clear();
+		assertFalse(grid.isDangerous(X, Y, 0));
+	}
+}
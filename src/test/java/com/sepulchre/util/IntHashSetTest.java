@@ -0,0 +1,198 @@
+package com.sepulchre.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntHashSetTest
+{
+	/**
+	 * {@code new IntHashSet(8)} has 16 buckets and holds 8 keys before growing.
+	 */
+	private static final int EXPECTED_SIZE = 8;
+	private static final int MASK = 15;
+
+	@Test
+	public void collisionsWrapAroundTheTable()
+	{
+		IntHashSet set = new IntHashSet(EXPECTED_SIZE);
+		List<Integer> lastBucket = keysWithHome(MASK, 3);
+		int firstBucket = keysWithHome(0, 1).get(0);
+
+		// home 15 fills buckets 15, 0 and 1; the home-0 key is pushed to bucket 2
+		for (int key : lastBucket)
+		{
+			assertTrue(set.add(key));
+		}
+		assertTrue(set.add(firstBucket));
+		assertContainsExactly(set, lastBucket.get(0), lastBucket.get(1), lastBucket.get(2), firstBucket);
+
+		// removing the head of the wrapped cluster must shift the rest back across the wrap
+		assertTrue(set.remove(lastBucket.get(0)));
+		assertContainsExactly(set, lastBucket.get(1), lastBucket.get(2), firstBucket);
+
+		assertTrue(set.remove(lastBucket.get(2)));
+		assertContainsExactly(set, lastBucket.get(1), firstBucket);
+
+		assertTrue(set.add(lastBucket.get(0)));
+		assertContainsExactly(set, lastBucket.get(0), lastBucket.get(1), firstBucket);
+	}
+
+	@Test
+	public void deleteFromTheMiddleOfACluster()
+	{
+		IntHashSet set = new IntHashSet(EXPECTED_SIZE);
+		List<Integer> home3 = keysWithHome(3, 3);
+		List<Integer> home4 = keysWithHome(4, 2);
+
+		// buckets 3..7 hold 3a 3b 3c 4a 4b
+		for (int key : home3)
+		{
+			set.add(key);
+		}
+		for (int key : home4)
+		{
+			set.add(key);
+		}
+
+		assertTrue(set.remove(home3.get(1)));
+		assertContainsExactly(set, home3.get(0), home3.get(2), home4.get(0), home4.get(1));
+
+		// a home-4 key may move back into bucket 4 but never before its home
+		assertTrue(set.remove(home3.get(0)));
+		assertContainsExactly(set, home3.get(2), home4.get(0), home4.get(1));
+
+		assertFalse(set.remove(home3.get(1)));
+		assertEquals(3, set.size());
+	}
+
+	@Test
+	public void removeAtWhileIteratingBackwards()
+	{
+		IntHashSet set = new IntHashSet();
+		for (int key = 0; key < 200; key++)
+		{
+			set.add(key);
+		}
+
+		for (int i = set.size() - 1; i >= 0; i--)
+		{
+			if ((set.keyAt(i) & 1) == 0)
+			{
+				set.removeAt(i);
+			}
+		}
+
+		assertEquals(100, set.size());
+		for (int key = 0; key < 200; key++)
+		{
+			assertEquals("key " + key, (key & 1) == 1, set.contains(key));
+		}
+		for (int i = 0; i < set.size(); i++)
+		{
+			assertEquals(i, set.indexOf(set.keyAt(i)));
+		}
+	}
+
+	@Test
+	public void resizingKeepsEveryKey()
+	{
+		IntHashSet set = new IntHashSet(4);
+		for (int i = 0; i < 5000; i++)
+		{
+			assertTrue(set.add(i * 7919));
+		}
+		assertEquals(5000, set.size());
+
+		for (int i = 0; i < 5000; i += 2)
+		{
+			assertTrue(set.remove(i * 7919));
+		}
+		for (int i = 0; i < 5000; i++)
+		{
+			assertEquals((i & 1) == 1, set.contains(i * 7919));
+		}
+	}
+
+	@Test
+	public void matchesHashSetUnderRandomAddsAndRemoves()
+	{
+		Random random = new Random(42);
+		IntHashSet set = new IntHashSet(4);
+		Set<Integer> expected = new HashSet<>();
+
+		for (int step = 0; step < 100_000; step++)
+		{
+			// a small key range keeps clusters dense
+			int key = random.nextInt(256);
+			if (random.nextInt(3) == 0)
+			{
+				assertEquals(expected.remove(key), set.remove(key));
+			}
+			else
+			{
+				assertEquals(expected.add(key), set.add(key));
+			}
+			assertEquals(expected.size(), set.size());
+		}
+
+		for (int key = 0; key < 256; key++)
+		{
+			assertEquals(expected.contains(key), set.contains(key));
+		}
+	}
+
+	@Test
+	public void clearEmptiesTheSet()
+	{
+		IntHashSet set = new IntHashSet();
+		set.add(1);
+		set.add(2);
+		set.clear();
+
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(1));
+		assertTrue(set.add(2));
+		assertEquals(1, set.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void reservedKeyIsRejected()
+	{
+		new IntHashSet().add(-1);
+	}
+
+	private static void assertContainsExactly(IntHashSet set, int... keys)
+	{
+		assertEquals(keys.length, set.size());
+		for (int key : keys)
+		{
+			assertTrue("missing " + key, set.contains(key));
+		}
+	}
+
+	/**
+	 * Keys whose home bucket in a table of {@code MASK + 1} buckets is {@code home}, using the same
+	 * mixing as {@link IntHashSet}.
+	 */
+	private static List<Integer> keysWithHome(int home, int count)
+	{
+		List<Integer> keys = new ArrayList<>();
+		for (int key = 0; keys.size() < count; key++)
+		{
+			int h = key * 0x9E3779B9;
+			if (((h ^ (h >>> 16)) & MASK) == home)
+			{
+				keys.add(key);
+			}
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,139 @@
+package com.sepulchre.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntIntHashMapTest
+{
+	private static final int MISSING = -1;
+
+	@Test
+	public void putReplacesAndGetReturnsMissingValueForAbsentKeys()
+	{
+		IntIntHashMap map = new IntIntHashMap(MISSING);
+		map.put(10, 1);
+		map.put(20, 2);
+		map.put(10, 3);
+
+		assertEquals(2, map.size());
+		assertEquals(3, map.get(10));
+		assertEquals(2, map.get(20));
+		assertEquals(MISSING, map.get(30));
+	}
+
+	@Test
+	public void removeReturnsTheValueAndKeepsMovedEntriesAligned()
+	{
+		IntIntHashMap map = new IntIntHashMap(MISSING);
+		for (int key = 0; key < 10; key++)
+		{
+			map.put(key, key * 100);
+		}
+
+		// the last entry moves into the removed slot and must take its value with it
+		assertEquals(300, map.remove(3));
+		assertEquals(MISSING, map.remove(3));
+		assertEquals(9, map.size());
+		for (int key = 0; key < 10; key++)
+		{
+			assertEquals(key == 3 ? MISSING : key * 100, map.get(key));
+		}
+		for (int i = 0; i < map.size(); i++)
+		{
+			assertEquals(map.keyAt(i) * 100, map.valueAt(i));
+		}
+	}
+
+	@Test
+	public void removeAtWhileIteratingBackwards()
+	{
+		IntIntHashMap map = new IntIntHashMap(MISSING);
+		for (int key = 0; key < 100; key++)
+		{
+			map.put(key, key % 5);
+		}
+
+		// the countdown pattern the handler uses: decrement and expire in one backwards pass
+		for (int i = map.size() - 1; i >= 0; i--)
+		{
+			int remaining = map.valueAt(i) - 1;
+			if (remaining < 0)
+			{
+				map.removeAt(i);
+			}
+			else
+			{
+				map.setValueAt(i, remaining);
+			}
+		}
+
+		assertEquals(80, map.size());
+		for (int key = 0; key < 100; key++)
+		{
+			assertEquals(key % 5 == 0 ? MISSING : key % 5 - 1, map.get(key));
+		}
+	}
+
+	@Test
+	public void resizingKeepsValues()
+	{
+		IntIntHashMap map = new IntIntHashMap(MISSING);
+		for (int key = 0; key < 3000; key++)
+		{
+			map.put(key * 31, key);
+		}
+		for (int key = 0; key < 3000; key++)
+		{
+			assertEquals(key, map.get(key * 31));
+		}
+	}
+
+	@Test
+	public void matchesHashMapUnderRandomOperations()
+	{
+		Random random = new Random(7);
+		IntIntHashMap map = new IntIntHashMap(MISSING);
+		Map<Integer, Integer> expected = new HashMap<>();
+
+		for (int step = 0; step < 100_000; step++)
+		{
+			int key = random.nextInt(128);
+			if (random.nextInt(3) == 0)
+			{
+				Integer removed = expected.remove(key);
+				assertEquals(removed == null ? MISSING : removed, map.remove(key));
+			}
+			else
+			{
+				int value = random.nextInt(1000);
+				expected.put(key, value);
+				map.put(key, value);
+			}
+		}
+
+		assertEquals(expected.size(), map.size());
+		for (int key = 0; key < 128; key++)
+		{
+			assertEquals(expected.containsKey(key), map.containsKey(key));
+			assertEquals(expected.getOrDefault(key, MISSING).intValue(), map.get(key));
+		}
+	}
+
+	@Test
+	public void clearEmptiesTheMap()
+	{
+		IntIntHashMap map = new IntIntHashMap(MISSING);
+		map.put(1, 1);
+		map.clear();
+
+		assertTrue(map.isEmpty());
+		assertFalse(map.containsKey(1));
+		assertEquals(MISSING, map.get(1));
+	}
+}
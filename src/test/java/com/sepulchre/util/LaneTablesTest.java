@@ -0,0 +1,63 @@
+package com.sepulchre.util;
+
+import net.runelite.api.CollisionDataFlag;
+import net.runelite.api.Constants;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+public class LaneTablesTest
+{
+	private static final int BASE_X = 2176;
+	private static final int BASE_Y = 5888;
+	private static final int X = 40;
+	private static final int Y = 40;
+
+	/**
+	 * Faces north, so the lane runs up the y axis from the statue.
+	 */
+	private static final int NORTH = LaneTables.NORTH * 512;
+
+	private final int[][] flags = new int[Constants.SCENE_SIZE][Constants.SCENE_SIZE];
+	private final int origin = tile(X, Y);
+	private final int[] lane = LaneTables.crossbowLaneTiles(origin, NORTH);
+
+	@Test
+	public void openLaneIsKeptWhole()
+	{
+		assertSame(lane, LaneTables.clipLane(origin, lane, flags, BASE_X, BASE_Y));
+	}
+
+	@Test
+	public void laneStopsAtAWallAcrossIt()
+	{
+		// a thin wall along the north edge of the third tile out leaves both tiles walkable
+		flags[X][Y + 3] = CollisionDataFlag.BLOCK_MOVEMENT_NORTH;
+
+		assertArrayEquals(new int[]{tile(X, Y + 1), tile(X, Y + 2), tile(X, Y + 3)},
+			LaneTables.clipLane(origin, lane, flags, BASE_X, BASE_Y));
+	}
+
+	@Test
+	public void wallOnTheStatuesOwnEdgeBlocksTheWholeLane()
+	{
+		flags[X][Y] = CollisionDataFlag.BLOCK_MOVEMENT_NORTH;
+
+		assertArrayEquals(new int[0], LaneTables.clipLane(origin, lane, flags, BASE_X, BASE_Y));
+	}
+
+	@Test
+	public void laneStopsBeforeABlockedTile()
+	{
+		flags[X][Y + 5] = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+
+		assertArrayEquals(new int[]{tile(X, Y + 1), tile(X, Y + 2), tile(X, Y + 3), tile(X, Y + 4)},
+			LaneTables.clipLane(origin, lane, flags, BASE_X, BASE_Y));
+	}
+
+	private static int tile(int sceneX, int sceneY)
+	{
+		return TileKey.pack(BASE_X + sceneX, BASE_Y + sceneY, 0);
+	}
+}
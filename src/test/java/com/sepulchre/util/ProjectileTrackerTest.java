@@ -0,0 +1,200 @@
+package com.sepulchre.util;
+
+import com.sepulchre.stub.Stubs;
+import com.sepulchre.stub.SyntheticFloor;
+import java.util.HashMap;
+import java.util.Map;
+import net.runelite.api.CollisionDataFlag;
+import net.runelite.api.NPC;
+import net.runelite.api.NPCComposition;
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ProjectileTrackerTest
+{
+	private static final int X = 40;
+	private static final int Y = 40;
+
+	private final SyntheticFloor floor = new SyntheticFloor(0, 0, 0);
+	private final DangerGrid dangerGrid = new DangerGrid();
+	private final ProjectileTracker tracker = new ProjectileTracker(dangerGrid);
+
+	@Test
+	public void stepIsTheAverageMoveAndTheLaneRunsItsTicks()
+	{
+		WorldPoint[] location = {tile(X, Y)};
+		tracker.add(npc(1, 1, location));
+
+		location[0] = tile(X + 2, Y + 1);
+		tracker.update(floor.getClient());
+		location[0] = tile(X + 4, Y + 1);
+		tracker.update(floor.getClient());
+
+		// 4 east and 1 north over two ticks rounds to 2 east and 1 north a tick, walked as unit
+		// steps along its signs, two a tick
+		assertEquals(2, tracker.getStepX(0));
+		assertEquals(1, tracker.getStepY(0));
+		assertLane(0, tile(X + 5, Y + 2), tile(X + 6, Y + 3), tile(X + 7, Y + 4), tile(X + 8, Y + 5), tile(X + 9, Y + 6), tile(X + 10, Y + 7));
+		for (int i = 0; i < 6; i++)
+		{
+			assertEquals(i / 2 + 1, tracker.getLaneTicksAhead(0, i));
+		}
+	}
+
+	@Test
+	public void bounceAndTeleportRestartTheStep()
+	{
+		WorldPoint[] location = {tile(X, Y)};
+		tracker.add(npc(1, 1, location));
+		for (int x = X + 1; x <= X + 3; x++)
+		{
+			location[0] = tile(x, Y);
+			tracker.update(floor.getClient());
+		}
+		assertEquals(1, tracker.getStepX(0));
+
+		// only the travel since the bounce counts
+		location[0] = tile(X + 2, Y);
+		tracker.update(floor.getClient());
+		assertEquals(-1, tracker.getStepX(0));
+		assertLane(0, tile(X + 1, Y), tile(X, Y), tile(X - 1, Y));
+
+		// a move longer than any step is a respawn, with nothing to infer from yet
+		location[0] = tile(X + 10, Y);
+		tracker.update(floor.getClient());
+		assertEquals(0, tracker.getStepX(0));
+		assertEquals(0, tracker.getLaneLength(0));
+	}
+
+	@Test
+	public void laneStopsAtAWallAcrossIt()
+	{
+		floor.setCollisionFlags(X + 3, Y, CollisionDataFlag.BLOCK_MOVEMENT_EAST);
+		WorldPoint[] location = {tile(X, Y)};
+		tracker.add(npc(1, 1, location));
+
+		location[0] = tile(X + 1, Y);
+		tracker.update(floor.getClient());
+
+		assertLane(0, tile(X + 2, Y), tile(X + 3, Y));
+	}
+
+	@Test
+	public void diagonalLaneCannotCutPastAWallCorner()
+	{
+		// a wall along the north edge of the tile east of the first lane tile is cut by the step after it
+		floor.setCollisionFlags(X + 3, Y + 2, CollisionDataFlag.BLOCK_MOVEMENT_NORTH);
+		WorldPoint[] location = {tile(X, Y)};
+		tracker.add(npc(1, 1, location));
+
+		location[0] = tile(X + 1, Y + 1);
+		tracker.update(floor.getClient());
+
+		assertLane(0, tile(X + 2, Y + 2));
+	}
+
+	@Test
+	public void removingMovesTheLastSlotIntoTheGap()
+	{
+		WorldPoint[] first = {tile(X, Y)};
+		WorldPoint[] second = {tile(X, Y + 5)};
+		WorldPoint[] third = {tile(X, Y + 10)};
+		NPC removed = npc(1, 1, first);
+		NPC kept = npc(2, 1, second);
+		NPC moved = npc(3, 2, third);
+		tracker.add(removed);
+		tracker.add(kept);
+		tracker.add(moved);
+
+		third[0] = tile(X + 1, Y + 10);
+		tracker.update(floor.getClient());
+
+		tracker.remove(removed);
+		assertEquals(2, tracker.size());
+		assertSame(moved, tracker.getNpc(0));
+		assertSame(kept, tracker.getNpc(1));
+		assertEquals(TileKey.pack(tile(X + 1, Y + 10)), tracker.getTile(0));
+		assertEquals(2, tracker.getSize(0));
+		assertEquals(1, tracker.getStepX(0));
+		assertLane(0, tile(X + 2, Y + 10), tile(X + 3, Y + 10), tile(X + 4, Y + 10));
+		assertFalse(dangerGrid.isDangerous(TileKey.pack(tile(X, Y))));
+
+		// the moved NPC keeps its history and slot mapping in its new slot
+		third[0] = tile(X + 2, Y + 10);
+		tracker.update(floor.getClient());
+		assertEquals(1, tracker.getStepX(0));
+		assertTrue(tracker.remove(moved));
+		assertSame(kept, tracker.getNpc(0));
+		assertFalse(dangerGrid.isDangerous(TileKey.pack(tile(X + 3, Y + 11))));
+	}
+
+	@Test
+	public void multiTileNpcCoversItsWholeFootprint()
+	{
+		WorldPoint[] location = {tile(X, Y)};
+		tracker.add(npc(1, 2, location));
+		assertFootprint(X, Y, true);
+
+		location[0] = tile(X + 1, Y);
+		tracker.update(floor.getClient());
+		assertFalse(dangerGrid.isDangerous(TileKey.pack(tile(X, Y))));
+		assertFalse(dangerGrid.isDangerous(TileKey.pack(tile(X, Y + 1))));
+		assertFootprint(X + 1, Y, true);
+	}
+
+	@Test
+	public void multiTileLaneStopsWhereAnyLeadingTileMeetsAWall()
+	{
+		// the wall only crosses the NPC's northern row
+		floor.setCollisionFlags(X + 4, Y + 1, CollisionDataFlag.BLOCK_MOVEMENT_EAST);
+		WorldPoint[] location = {tile(X, Y)};
+		tracker.add(npc(1, 2, location));
+
+		location[0] = tile(X + 1, Y);
+		tracker.update(floor.getClient());
+
+		assertLane(0, tile(X + 2, Y), tile(X + 3, Y));
+	}
+
+	private void assertFootprint(int sceneX, int sceneY, boolean dangerous)
+	{
+		for (int dx = 0; dx < 2; dx++)
+		{
+			for (int dy = 0; dy < 2; dy++)
+			{
+				assertEquals(dangerous, dangerGrid.isDangerous(TileKey.pack(tile(sceneX + dx, sceneY + dy))));
+			}
+		}
+	}
+
+	private void assertLane(int slot, WorldPoint... expected)
+	{
+		assertEquals(expected.length, tracker.getLaneLength(slot));
+		for (int i = 0; i < expected.length; i++)
+		{
+			assertEquals(TileKey.pack(expected[i]), tracker.getLaneTile(slot, i));
+		}
+	}
+
+	private static NPC npc(int index, int size, WorldPoint[] location)
+	{
+		Map<String, Object> composition = new HashMap<>();
+		composition.put("getSize", size);
+
+		Map<String, Object> values = new HashMap<>();
+		values.put("getIndex", index);
+		values.put("getTransformedComposition", Stubs.stub(NPCComposition.class, composition));
+		values.put("getWorldLocation", (Stubs.Answer) args -> location[0]);
+		return Stubs.stub(NPC.class, values);
+	}
+
+	private static WorldPoint tile(int sceneX, int sceneY)
+	{
+		return new WorldPoint(SyntheticFloor.BASE_X + sceneX, SyntheticFloor.BASE_Y + sceneY, SyntheticFloor.PLANE);
+	}
+}